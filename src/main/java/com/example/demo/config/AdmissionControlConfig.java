@@ -0,0 +1,35 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers admission control for the card endpoints. It runs after the HTTP
+ * caching interceptor, so requests answered with 304 are never shed.
+ * Suggestion streams are excluded: they are long-lived and limited by
+ * creditcards.suggest.max-sessions instead.
+ */
+@Configuration
+public class AdmissionControlConfig implements WebMvcConfigurer {
+
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public AdmissionControlConfig(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        registry.addInterceptor(new AdmissionControlInterceptor(properties, meterRegistry))
+                .addPathPatterns("/api/creditcards", "/api/creditcards/**")
+                .excludePathPatterns("/api/creditcards/suggest/**")
+                .order(1);
+    }
+}
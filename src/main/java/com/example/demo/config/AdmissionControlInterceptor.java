@@ -0,0 +1,121 @@
+package com.example.demo.config;
+
+import com.example.demo.util.AdaptiveLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sheds load per endpoint before the controller runs.
+ * Each expensive endpoint has an {@link AdaptiveLimit} fed with the latency
+ * of its own requests; a request arriving while its endpoint is at the limit
+ * is answered with an uncacheable 503 and Retry-After straight away. Cheap
+ * endpoints are always admitted, so autocomplete stays fast while ranking
+ * traffic spikes.
+ *
+ * Metrics, tagged by endpoint: creditcards.admission.limit and
+ * creditcards.admission.in.flight gauges, creditcards.admission.rejected counter.
+ */
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final String LIMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".limit";
+    private static final String START_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".start";
+
+    // Card listing pattern; listings with search text are limited apart from plain ones
+    private static final String LISTING_PATTERN = "/api/creditcards";
+
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> cheapEndpoints;
+    private final String retryAfter;
+    private final Map<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public AdmissionControlInterceptor(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.cheapEndpoints = new HashSet<>(properties.getCheapEndpoints());
+        this.retryAfter = Long.toString(Math.max(1, properties.getRetryAfter().toSeconds()));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        String endpoint = endpoint(request);
+        if (endpoint == null || cheapEndpoints.contains(endpoint)) {
+            return true;
+        }
+
+        AdaptiveLimit limit = limits.computeIfAbsent(endpoint, this::register);
+        if (!limit.tryAcquire()) {
+            rejections.get(endpoint).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            // Caching headers registered for this request are dropped with the
+            // 503 by CacheHeadersFilter; make sure nothing stores the rejection
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            return false;
+        }
+        request.setAttribute(LIMIT_ATTRIBUTE, limit);
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        AdaptiveLimit limit = (AdaptiveLimit) request.getAttribute(LIMIT_ATTRIBUTE);
+        if (limit != null) {
+            request.removeAttribute(LIMIT_ATTRIBUTE);
+            limit.release(System.nanoTime() - (Long) request.getAttribute(START_ATTRIBUTE));
+        }
+    }
+
+    /**
+     * Names the endpoint a request is limited under: its mapped path pattern,
+     * with searches on the card listing kept apart since they rank the
+     * catalog while plain listings only filter it.
+     */
+    private static String endpoint(HttpServletRequest request) {
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (LISTING_PATTERN.equals(pattern)) {
+            String search = request.getParameter("search");
+            if (search != null && !search.trim().isEmpty()) {
+                return pattern + "?search";
+            }
+        }
+        return pattern;
+    }
+
+    private AdaptiveLimit register(String endpoint) {
+        AdaptiveLimit limit = new AdaptiveLimit(properties.getInitialLimit(),
+                properties.getMinLimit(), properties.getMaxLimit());
+        Gauge.builder("creditcards.admission.limit", limit, AdaptiveLimit::getLimit)
+                .tag("endpoint", endpoint)
+                .description("Concurrent requests admitted")
+                .register(meterRegistry);
+        Gauge.builder("creditcards.admission.in.flight", limit, AdaptiveLimit::getInFlight)
+                .tag("endpoint", endpoint)
+                .description("Admitted requests being processed")
+                .register(meterRegistry);
+        rejections.put(endpoint, Counter.builder("creditcards.admission.rejected")
+                .tag("endpoint", endpoint)
+                .description("Requests rejected with 503")
+                .register(meterRegistry));
+        return limit;
+    }
+}
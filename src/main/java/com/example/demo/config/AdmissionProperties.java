@@ -0,0 +1,79 @@
+package com.example.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admission control for the card API, bound from creditcards.admission.*.
+ * Every endpoint except the cheap ones gets its own adaptive concurrency
+ * limit; requests over the limit are rejected at once with 503 so they do
+ * not tie up request threads that cheap lookups need.
+ */
+@Component
+@ConfigurationProperties(prefix = "creditcards.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+    private int initialLimit = 20;              // Concurrent requests per endpoint at startup
+    private int minLimit = 2;
+    private int maxLimit = 200;
+    private Duration retryAfter = Duration.ofSeconds(1); // Sent with 503 responses
+    private List<String> cheapEndpoints = new ArrayList<>(List.of( // Path patterns never shed
+            "/api/creditcards/autocomplete",
+            "/api/creditcards/spelling-suggestions",
+            "/api/creditcards/word-frequency",
+            "/api/creditcards/search-history",
+            "/api/creditcards/{id}/similar"));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public List<String> getCheapEndpoints() {
+        return cheapEndpoints;
+    }
+
+    public void setCheapEndpoints(List<String> cheapEndpoints) {
+        this.cheapEndpoints = cheapEndpoints;
+    }
+}
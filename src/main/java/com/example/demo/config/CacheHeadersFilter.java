@@ -0,0 +1,99 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Holds back caching headers until the response is known to be successful.
+ *
+ * {@link ConditionalRequestInterceptor} works out the ETag before the
+ * controller runs, but only the controller decides whether the request is
+ * answered with 200 or with 400 / 404 / 410 / 503, and it may stream the body
+ * straight to the output stream. This filter wraps the response so that the
+ * headers registered with {@link #deferCacheHeaders} are added when a 2xx
+ * response starts its body (or ends without one) and are dropped otherwise,
+ * so error responses are never stored by browsers or proxies.
+ */
+public class CacheHeadersFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        CacheHeadersResponse wrapped = new CacheHeadersResponse(response);
+        filterChain.doFilter(request, wrapped);
+        wrapped.applyIfSuccessful(); // Responses without a body
+    }
+
+    /**
+     * Adds Cache-Control and ETag to the response once it turns out to be
+     * successful. Without this filter in front the headers are set at once.
+     */
+    static void deferCacheHeaders(HttpServletResponse response, String cacheControl, String etag) {
+        CacheHeadersResponse wrapped = WebUtils.getNativeResponse(response, CacheHeadersResponse.class);
+        if (wrapped != null) {
+            wrapped.cacheControl = cacheControl;
+            wrapped.etag = etag;
+        } else {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+    }
+
+    private static final class CacheHeadersResponse extends HttpServletResponseWrapper {
+        private String cacheControl;    // Pending headers; null once applied or dropped
+        private String etag;
+
+        CacheHeadersResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        void applyIfSuccessful() {
+            if (cacheControl != null && !isCommitted() && getStatus() >= 200 && getStatus() < 300) {
+                setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+                setHeader(HttpHeaders.ETAG, etag);
+            }
+            cacheControl = null;
+            etag = null;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            applyIfSuccessful();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            applyIfSuccessful();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            applyIfSuccessful();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            cacheControl = null;
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            cacheControl = null;
+            super.sendError(sc);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.config;
+
+import com.example.demo.service.CreditCardService;
+import com.example.demo.service.SearchHistoryService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Answers conditional GET requests on the card catalog endpoints.
+ * The ETag is derived from the catalog version plus the normalized request,
+ * so a matching If-None-Match is answered with 304 before the controller
+ * does any filtering, ranking or serialization. Otherwise Cache-Control and
+ * the ETag are handed to {@link CacheHeadersFilter}, which only adds them if
+ * the controller answers successfully.
+ *
+ * Searches are counted in the search history, so their responses must not be
+ * served from a cache without asking the server: they get a revalidating
+ * Cache-Control instead of a max-age, and every repeat arrives here as a
+ * conditional request that is counted before it is answered with 304.
+ */
+public class ConditionalRequestInterceptor implements HandlerInterceptor {
+
+    private final CreditCardService creditCardService;
+    private final SearchHistoryService searchHistoryService;
+    private final String cacheControl;          // Responses without side effects
+    private final String searchCacheControl;    // Responses to searches recorded in the history
+
+    public ConditionalRequestInterceptor(CreditCardService creditCardService,
+                                         SearchHistoryService searchHistoryService,
+                                         CacheControl cacheControl, CacheControl searchCacheControl) {
+        this.creditCardService = creditCardService;
+        this.searchHistoryService = searchHistoryService;
+        this.cacheControl = cacheControl.getHeaderValue();
+        this.searchCacheControl = searchCacheControl.getHeaderValue();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return true;
+        }
+
+        String etag = buildETag(request);
+        String search = recordedSearch(request);
+        String control = search == null ? cacheControl : searchCacheControl;
+        // Evaluated without the response so that no headers are written yet
+        if (new ServletWebRequest(request).checkNotModified(etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, control);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            // The client already has this result; the controller would have
+            // counted the search, so count it here
+            if (search != null) {
+                searchHistoryService.recordSearch(search);
+            }
+            return false;
+        }
+        CacheHeadersFilter.deferCacheHeaders(response, control, etag);
+        return true;
+    }
+
+    /**
+     * Builds a strong ETag from the catalog version and the request path with
+     * its parameters sorted and trimmed, so equivalent queries share a tag.
+     */
+    private String buildETag(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI()).append('?');
+        Map<String, String[]> sorted = new TreeMap<>(request.getParameterMap());
+        for (Map.Entry<String, String[]> param : sorted.entrySet()) {
+            for (String value : param.getValue()) {
+                String trimmed = value == null ? "" : value.trim();
+                if (!trimmed.isEmpty()) {
+                    key.append(param.getKey()).append('=').append(trimmed).append('&');
+                }
+            }
+        }
+        String queryHash = DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8));
+        return "\"" + creditCardService.getCatalogVersion() + "-" + queryHash.substring(0, 16) + "\"";
+    }
+
+    // Search text the controller records in the history for this request, or null
+    private static String recordedSearch(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String search = uri.endsWith("/page-ranking") ? request.getParameter("term")
+                : uri.endsWith("/api/creditcards") ? request.getParameter("search")
+                : null;
+        return search == null || search.trim().isEmpty() ? null : search;
+    }
+}
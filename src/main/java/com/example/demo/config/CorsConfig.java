@@ -11,6 +11,7 @@ public class CorsConfig implements WebMvcConfigurer {
         registry.addMapping("/**")
                 .allowedOrigins("http://127.0.0.1:5500")
                 .allowedMethods("GET", "POST", "PUT", "DELETE")
+                .exposedHeaders("X-Next-Cursor")
                 .allowCredentials(true);
     }
 }
\ No newline at end of file
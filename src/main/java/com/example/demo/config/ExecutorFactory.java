@@ -0,0 +1,112 @@
+package com.example.demo.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Creates the executors used for background and fan-out work.
+ * With spring.threads.virtual.enabled=true on Java 21+, executors start one
+ * virtual thread per task and bound concurrency with a limit instead of a
+ * pool; otherwise they are fixed-size platform thread pools with a bounded
+ * queue that fall back to running on the caller when full.
+ *
+ * Executors are deliberately not exposed as beans, so Spring Boot's own
+ * applicationTaskExecutor stays in place.
+ */
+@Component
+public class ExecutorFactory {
+
+    private final boolean virtualThreads;
+    private final List<AutoCloseable> created = new ArrayList<>();
+
+    public ExecutorFactory(Environment environment) {
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+    }
+
+    /**
+     * Creates a bounded executor.
+     *
+     * @param threadNamePrefix Prefix for worker thread names
+     * @param threads Pool size for platform threads
+     * @param queueCapacity Tasks that may wait for a platform thread
+     * @return An executor that admits at most threads + queueCapacity tasks at once
+     */
+    public synchronized AsyncTaskExecutor createBounded(String threadNamePrefix, int threads, int queueCapacity) {
+        if (virtualThreads) {
+            // Virtual threads are cheap, so admit the same amount of work as the
+            // pool plus its queue, but let all of it run instead of waiting
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(threads + queueCapacity);
+            created.add(executor);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        created.add(executor::shutdown);
+        return executor;
+    }
+
+    /**
+     * Creates a scheduler for short timed tasks. Schedulers always use a small
+     * platform thread pool; the work they run is expected to take microseconds.
+     *
+     * @param threadNamePrefix Prefix for worker thread names
+     * @param threads Number of scheduler threads
+     * @return An initialized scheduler
+     */
+    public synchronized ThreadPoolTaskScheduler createScheduler(String threadNamePrefix, int threads) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.setPoolSize(threads);
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.initialize();
+        created.add(scheduler::shutdown);
+        return scheduler;
+    }
+
+    /**
+     * Creates a fork-join pool for CPU-bound fan-out work such as searching
+     * index shards in parallel. Always uses platform threads: the tasks never
+     * block, so virtual threads would add nothing.
+     *
+     * @param threadNamePrefix Prefix for worker thread names
+     * @param parallelism Number of worker threads
+     * @return A new fork-join pool
+     */
+    public synchronized ForkJoinPool createForkJoinPool(String threadNamePrefix, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName(threadNamePrefix + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        created.add(pool::shutdown);
+        return pool;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() throws Exception {
+        for (AutoCloseable executor : created) {
+            executor.close();
+        }
+        created.clear();
+    }
+}
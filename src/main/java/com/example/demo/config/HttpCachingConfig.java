@@ -0,0 +1,56 @@
+package com.example.demo.config;
+
+import com.example.demo.service.CreditCardService;
+import com.example.demo.service.SearchHistoryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Registers HTTP caching (ETag / Cache-Control) for the read-only card endpoints.
+ * Search history is excluded because it changes independently of the catalog,
+ * and suggestion streams because they are long-lived event streams. Searches
+ * may be stored but must be revalidated, so that each one is counted.
+ */
+@Configuration
+public class HttpCachingConfig implements WebMvcConfigurer {
+
+    private final CreditCardService creditCardService;
+    private final SearchHistoryService searchHistoryService;
+
+    @Value("${creditcards.http.cache-max-age:5m}")
+    private Duration maxAge;
+
+    @Value("${creditcards.http.stale-while-revalidate:1m}")
+    private Duration staleWhileRevalidate;
+
+    public HttpCachingConfig(CreditCardService creditCardService, SearchHistoryService searchHistoryService) {
+        this.creditCardService = creditCardService;
+        this.searchHistoryService = searchHistoryService;
+    }
+
+    @Bean
+    public FilterRegistrationBean<CacheHeadersFilter> cacheHeadersFilter() {
+        FilterRegistrationBean<CacheHeadersFilter> registration = new FilterRegistrationBean<>(new CacheHeadersFilter());
+        registration.addUrlPatterns("/api/creditcards/*");
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        CacheControl cacheControl = CacheControl.maxAge(maxAge)
+                .cachePublic()
+                .staleWhileRevalidate(staleWhileRevalidate);
+
+        registry.addInterceptor(new ConditionalRequestInterceptor(creditCardService, searchHistoryService,
+                        cacheControl, CacheControl.noCache()))
+                .addPathPatterns("/api/creditcards", "/api/creditcards/**")
+                .excludePathPatterns("/api/creditcards/search-history", "/api/creditcards/suggest/**");
+    }
+}
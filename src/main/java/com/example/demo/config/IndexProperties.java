@@ -0,0 +1,54 @@
+package com.example.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Layout of the in-memory card index, bound from creditcards.index.*.
+ * The catalog is split into shards of consecutive card IDs that are searched
+ * in parallel. Small shards gain nothing from parallelism and give noisy
+ * relevance statistics, so shards are never made smaller than minShardSize
+ * cards; a small catalog is served from a single shard.
+ */
+@Component
+@ConfigurationProperties(prefix = "creditcards.index")
+public class IndexProperties {
+
+    private int shards = 0;             // Maximum shard count; 0 = one per available processor
+    private int minShardSize = 5000;    // Fewest cards per shard
+    private int similarCards = 10;      // Precomputed similar cards per card
+
+    public int getShards() {
+        return shards;
+    }
+
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    public int getMinShardSize() {
+        return minShardSize;
+    }
+
+    public void setMinShardSize(int minShardSize) {
+        this.minShardSize = minShardSize;
+    }
+
+    public int getSimilarCards() {
+        return similarCards;
+    }
+
+    public void setSimilarCards(int similarCards) {
+        this.similarCards = similarCards;
+    }
+
+    /**
+     * @param cardCount Number of cards in the catalog
+     * @return How many shards to split the catalog into
+     */
+    public int shardCount(int cardCount) {
+        int maxShards = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        int bySize = (cardCount + Math.max(minShardSize, 1) - 1) / Math.max(minShardSize, 1);
+        return Math.max(1, Math.min(maxShards, bySize));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Relevance tuning for card search, bound from creditcards.search.*.
+ * Each searchable field is scored with BM25 and weighted by its boost,
+ * so a match in the card title can count for more than one in the benefits.
+ */
+@Component
+@ConfigurationProperties(prefix = "creditcards.search")
+public class SearchProperties {
+
+    private float k1 = 1.2f;            // BM25 term-frequency saturation
+    private float b = 0.75f;            // BM25 field-length normalization
+    private float titleBoost = 3.0f;
+    private float valuePropBoost = 1.5f;
+    private float benefitsBoost = 1.0f;
+    private float bankBoost = 2.0f;
+
+    public float getK1() {
+        return k1;
+    }
+
+    public void setK1(float k1) {
+        this.k1 = k1;
+    }
+
+    public float getB() {
+        return b;
+    }
+
+    public void setB(float b) {
+        this.b = b;
+    }
+
+    public float getTitleBoost() {
+        return titleBoost;
+    }
+
+    public void setTitleBoost(float titleBoost) {
+        this.titleBoost = titleBoost;
+    }
+
+    public float getValuePropBoost() {
+        return valuePropBoost;
+    }
+
+    public void setValuePropBoost(float valuePropBoost) {
+        this.valuePropBoost = valuePropBoost;
+    }
+
+    public float getBenefitsBoost() {
+        return benefitsBoost;
+    }
+
+    public void setBenefitsBoost(float benefitsBoost) {
+        this.benefitsBoost = benefitsBoost;
+    }
+
+    public float getBankBoost() {
+        return bankBoost;
+    }
+
+    public void setBankBoost(float bankBoost) {
+        this.bankBoost = bankBoost;
+    }
+}
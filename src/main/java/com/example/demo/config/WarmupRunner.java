@@ -0,0 +1,241 @@
+package com.example.demo.config;
+
+import com.example.demo.service.SearchHistoryService;
+import com.example.demo.util.Analyzer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Warms up request handling before the application reports ready.
+ *
+ * Right after startup the ranking, trie, spell checking and serialization
+ * code still runs interpreted, so the first real requests are slow. Once the
+ * embedded server is listening, this runner replays the most popular
+ * searches, topped up from a bundled query file, as HTTP requests to the
+ * server's own port: listings with facets, sorting and paging, conditional
+ * requests answered with 304, page ranking, re-ranking, similar cards,
+ * autocomplete and spelling. Requests pass through the servlet filters,
+ * DispatcherServlet, the caching and admission control interceptors and the
+ * response writer exactly as user requests do; the first listing also builds
+ * the pre-serialized card fragments. Rounds are replayed until a round takes
+ * about as long as the one before it.
+ *
+ * The search history is kept in memory only and is empty when the runner
+ * starts, so after a restart the replayed queries are in practice those of
+ * the query file; keep it in line with what users search for. Popular
+ * searches are still taken first, so warm-up follows real traffic should
+ * the history ever be persisted. The handlers record replayed searches like
+ * any other; the runner takes each one back once it has been answered.
+ *
+ * Spring Boot only moves readiness to ACCEPTING_TRAFFIC once all application
+ * runners have finished, so warm-up delays readiness without blocking
+ * liveness. Without an embedded server (e.g. in mock MVC tests) there is
+ * nothing to warm up and the runner does nothing.
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmupRunner.class);
+
+    // Sort parameters of the card listing
+    private static final String[] SORTS = {"annualFee", "purchaseRate", "cashRate"};
+
+    // Stable rounds in a row required before stopping
+    private static final int STABLE_ROUNDS = 3;
+
+    private final ApplicationContext context;
+    private final SearchHistoryService searchHistoryService;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${creditcards.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${creditcards.warmup.queries:20}")
+    private int queryCount;             // Top-N queries to replay
+
+    @Value("${creditcards.warmup.query-file:classpath:warmup-queries.txt}")
+    private Resource queryFile;
+
+    @Value("${creditcards.warmup.tolerance:0.1}")
+    private double tolerance;           // Round-to-round change below which timings count as stable
+
+    @Value("${creditcards.warmup.max-rounds:200}")
+    private int maxRounds;
+
+    @Value("${creditcards.warmup.max-duration:30s}")
+    private Duration maxDuration;
+
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
+
+    private HttpClient client;
+    private String baseUrl;             // Loopback URL of the card API
+
+    public WarmupRunner(ApplicationContext context, SearchHistoryService searchHistoryService,
+                        MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this.context = context;
+        this.searchHistoryService = searchHistoryService;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!enabled || !(context instanceof WebServerApplicationContext webContext)
+                || webContext.getWebServer() == null) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(context, ReadinessState.REFUSING_TRAFFIC);
+
+        baseUrl = "http://localhost:" + webContext.getWebServer().getPort() + contextPath + "/api/creditcards";
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<String> queries = warmupQueries();
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        long previous = -1;
+        int stable = 0;
+        try {
+            for (int round = 0; round < maxRounds && stable < STABLE_ROUNDS && System.nanoTime() < deadline; round++) {
+                long roundStart = System.nanoTime();
+                replay(queries);
+                long elapsed = System.nanoTime() - roundStart;
+
+                stable = previous > 0 && Math.abs(elapsed - previous) <= tolerance * previous ? stable + 1 : 0;
+                previous = elapsed;
+            }
+        } catch (IOException e) {
+            // Warm-up only speeds up the first requests; never fail startup over it
+            LOGGER.warn("Warm-up stopped early: {}", e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Timer.builder("creditcards.warmup.duration")
+                .description("Time spent warming up before reporting ready")
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * @return The most popular searches first (none on a fresh start), then
+     *         queries from the file, up to the configured count
+     */
+    private List<String> warmupQueries() throws IOException {
+        Set<String> queries = new LinkedHashSet<>(searchHistoryService.getPopularSearches(queryCount).keySet());
+        if (queryFile.exists()) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(queryFile.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null && queries.size() < queryCount) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        queries.add(line);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(queries);
+    }
+
+    // Sends each query to every read endpoint of the card API
+    private void replay(List<String> queries) throws IOException, InterruptedException {
+        send(get("?facets=true"));
+        for (String sort : SORTS) {
+            send(get("?sort=" + sort + ",asc&limit=20&fields=summary"));
+        }
+
+        for (String query : queries) {
+            String q = encode(query);
+            HttpResponse<byte[]> top = search(query, get("?search=" + q + "&limit=20"));
+            Optional<String> etag = top.headers().firstValue(HttpHeaders.ETAG);
+            if (etag.isPresent()) {
+                search(query, get("?search=" + q + "&limit=20", HttpHeaders.IF_NONE_MATCH, etag.get()));
+            }
+            search(query, get("?search=" + q + "&facets=true&sort=annualFee,asc"));
+            search(query, get("/page-ranking?term=" + q));
+
+            List<Integer> ids = cardIds(top);
+            send(HttpRequest.newBuilder(URI.create(baseUrl + "/rank"))
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(
+                            objectMapper.writeValueAsBytes(Map.of("ids", ids, "query", query))))
+                    .build());
+            if (!ids.isEmpty()) {
+                send(get("/" + ids.get(0) + "/similar?limit=10&fields=summary"));
+            }
+
+            for (String token : new Analyzer().tokenize(query)) {
+                for (int length = 1; length <= token.length(); length++) {
+                    send(get("/autocomplete?prefix=" + encode(token.substring(0, length))));
+                }
+                send(get("/spelling-suggestions?word=" + encode(token)));
+                send(get("/word-frequency?word=" + encode(token)));
+            }
+        }
+    }
+
+    // Sends a request that records its search term, then takes the recorded search back
+    private HttpResponse<byte[]> search(String query, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send(request);
+        if (response.statusCode() == 200 || response.statusCode() == 304) {
+            searchHistoryService.forgetSearch(query);
+        }
+        return response;
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpRequest get(String pathAndQuery, String... headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + pathAndQuery)).GET();
+        return headers.length > 0 ? builder.headers(headers).build() : builder.build();
+    }
+
+    // IDs of the cards in a listing response; none if it was not answered with cards
+    private List<Integer> cardIds(HttpResponse<byte[]> response) throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        if (response.statusCode() == 200) {
+            for (JsonNode card : objectMapper.readTree(response.body())) {
+                ids.add(card.path("id").asInt());
+            }
+        }
+        return ids;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
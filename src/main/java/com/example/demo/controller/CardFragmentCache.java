@@ -0,0 +1,241 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.CardField;
+import com.example.demo.model.CreditCard;
+import com.example.demo.service.CreditCardService;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Pre-serialized UTF-8 JSON for every card in the catalog.
+ * Each card is encoded once per catalog snapshot: first into one fragment
+ * per field, then into whole-object fragments for the two projections the
+ * list views use (all fields and summary). Responses are assembled by
+ * concatenating these byte arrays, so list endpoints do no per-request
+ * serialization. Other projections are chosen by clients, so caching them
+ * could hold any number of catalog copies; their objects are instead joined
+ * from the field fragments while the response is written.
+ */
+@Component
+public class CardFragmentCache {
+
+    // =========================================
+    // Field Projections
+    // =========================================
+
+    /** Projection containing every card field. */
+    public static final int ALL_FIELDS = (1 << CardField.values().length) - 1;
+
+    /** Projection for list views: drops the long descriptive text fields. */
+    public static final int SUMMARY_FIELDS = ALL_FIELDS
+            & ~bit(CardField.PRODUCT_BENEFITS)
+            & ~bit(CardField.PRODUCT_VALUE_PROP);
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    // =========================================
+    // Fields
+    // =========================================
+
+    private final CreditCardService creditCardService;
+    private volatile Generation generation; // Fragments for the current catalog snapshot
+
+    public CardFragmentCache(CreditCardService creditCardService) {
+        this.creditCardService = creditCardService;
+    }
+
+    // =========================================
+    // Public API Methods
+    // =========================================
+
+    /**
+     * Parses a fields parameter into a projection bitmask.
+     * Accepts "all", "summary", or a comma-separated list of JSON property names.
+     *
+     * @param fields The parameter value (null means all fields)
+     * @return Bitmask of selected {@link CardField} ordinals
+     * @throws IllegalArgumentException if a field name is unknown
+     */
+    public static int parseFields(String fields) {
+        if (fields == null || fields.isBlank() || fields.trim().equalsIgnoreCase("all")) {
+            return ALL_FIELDS;
+        }
+        if (fields.trim().equalsIgnoreCase("summary")) {
+            return SUMMARY_FIELDS;
+        }
+        int mask = 0;
+        for (String name : fields.split(",")) {
+            if (name.isBlank()) continue;
+            CardField field = CardField.fromJsonName(name.trim());
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown card field: " + name.trim());
+            }
+            mask |= bit(field);
+        }
+        if (mask == 0) {
+            throw new IllegalArgumentException("No card fields selected");
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the encoded card objects for a field projection.
+     *
+     * @param fields Projection bitmask from {@link #parseFields(String)}
+     * @return Lookup of pre-serialized JSON objects by card
+     */
+    public Fragments forFields(int fields) {
+        Generation current = currentGeneration();
+        byte[][] variant = fields == ALL_FIELDS ? current.allFields
+                : fields == SUMMARY_FIELDS ? current.summaryFields
+                : null;
+        return new Fragments(current, variant, fields);
+    }
+
+    /**
+     * Pre-serialized card objects for a single projection.
+     */
+    public static final class Fragments {
+        private final Generation generation;
+        private final byte[][] byCardId; // Null for projections that are not precomputed
+        private final int fields;
+
+        private Fragments(Generation generation, byte[][] byCardId, int fields) {
+            this.generation = generation;
+            this.byCardId = byCardId;
+            this.fields = fields;
+        }
+
+        /**
+         * @param card A card from the catalog
+         * @return The card encoded as a JSON object
+         */
+        public byte[] get(CreditCard card) {
+            int id = card.getId();
+            if (id >= 0 && id < generation.cards.size() && generation.cards.get(id) == card) {
+                return byCardId != null ? byCardId[id] : generation.assemble(id, fields, new ByteArrayOutputStream(512));
+            }
+            // Not a catalog instance (e.g. from an older snapshot): encode directly
+            return encodeObject(card, fields);
+        }
+    }
+
+    // =========================================
+    // Generation Management
+    // =========================================
+
+    // A reload builds a new snapshot with new card instances even when the
+    // content (and so the catalog version) is unchanged, so generations are
+    // matched to the snapshot's card list rather than to its version
+    private Generation currentGeneration() {
+        List<CreditCard> cards = creditCardService.snapshot().getAllCards();
+        Generation current = generation;
+        if (current != null && current.cards == cards) {
+            return current;
+        }
+        synchronized (this) {
+            current = generation;
+            if (current == null || current.cards != cards) {
+                current = new Generation(cards);
+                generation = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * All fragments derived from one catalog snapshot.
+     */
+    private static final class Generation {
+        final List<CreditCard> cards;
+        final byte[][][] fieldFragments; // [field ordinal][card id] -> "name":value
+        final byte[][] allFields;        // [card id] -> object with every field
+        final byte[][] summaryFields;    // [card id] -> object with the summary fields
+
+        Generation(List<CreditCard> cards) {
+            this.cards = cards;
+
+            CardField[] allFields = CardField.values();
+            this.fieldFragments = new byte[allFields.length][cards.size()][];
+            for (CardField field : allFields) {
+                for (int id = 0; id < cards.size(); id++) {
+                    fieldFragments[field.ordinal()][id] = encodeField(field, cards.get(id));
+                }
+            }
+
+            // Precompute the projections used by the list views
+            this.allFields = assemble(ALL_FIELDS);
+            this.summaryFields = assemble(SUMMARY_FIELDS);
+        }
+
+        byte[][] assemble(int fields) {
+            byte[][] objects = new byte[cards.size()][];
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+            for (int id = 0; id < cards.size(); id++) {
+                objects[id] = assemble(id, fields, buffer);
+            }
+            return objects;
+        }
+
+        // Joins one card's field fragments into a JSON object
+        byte[] assemble(int id, int fields, ByteArrayOutputStream buffer) {
+            buffer.reset();
+            buffer.write('{');
+            boolean first = true;
+            for (CardField field : CardField.values()) {
+                if ((fields & bit(field)) == 0) continue;
+                if (!first) buffer.write(',');
+                buffer.writeBytes(fieldFragments[field.ordinal()][id]);
+                first = false;
+            }
+            buffer.write('}');
+            return buffer.toByteArray();
+        }
+    }
+
+    // =========================================
+    // JSON Encoding Helpers
+    // =========================================
+
+    private static int bit(CardField field) {
+        return 1 << field.ordinal();
+    }
+
+    private static byte[] encodeObject(CreditCard card, int fields) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        buffer.write('{');
+        boolean first = true;
+        for (CardField field : CardField.values()) {
+            if ((fields & bit(field)) == 0) continue;
+            if (!first) buffer.write(',');
+            buffer.writeBytes(encodeField(field, card));
+            first = false;
+        }
+        buffer.write('}');
+        return buffer.toByteArray();
+    }
+
+    private static byte[] encodeField(CardField field, CreditCard card) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        buffer.write('"');
+        buffer.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(field.getJsonName()));
+        buffer.write('"');
+        buffer.write(':');
+
+        Object value = field.valueOf(card);
+        if (value == null) {
+            buffer.writeBytes(NULL);
+        } else if (value instanceof Number) {
+            buffer.writeBytes(value.toString().getBytes(StandardCharsets.US_ASCII));
+        } else {
+            buffer.write('"');
+            buffer.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(value.toString()));
+            buffer.write('"');
+        }
+        return buffer.toByteArray();
+    }
+}
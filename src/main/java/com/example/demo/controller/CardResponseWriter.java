@@ -0,0 +1,116 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.CreditCard;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams card listings straight to the servlet output stream.
+ * Each card is copied from its pre-serialized fragment in
+ * {@link CardFragmentCache}, so a response is a concatenation of byte arrays
+ * and memory used per request does not grow with the size of the result.
+ */
+@Component
+public class CardResponseWriter {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final byte[] RESULTS_PREFIX = "{\"results\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FACETS_PREFIX = ",\"facets\":".getBytes(StandardCharsets.UTF_8);
+
+    private final CardFragmentCache fragmentCache;
+    private final ObjectMapper objectMapper;
+
+    public CardResponseWriter(CardFragmentCache fragmentCache, ObjectMapper objectMapper) {
+        this.fragmentCache = fragmentCache;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes cards as a JSON array, or as newline-delimited JSON objects.
+     *
+     * @param cards Cards to write, in response order
+     * @param fields Field projection from {@link CardFragmentCache#parseFields(String)}
+     * @param ndjson Whether to emit one JSON object per line instead of an array
+     * @param response The servlet response to write to
+     */
+    public void write(List<CreditCard> cards, int fields, boolean ndjson,
+                      HttpServletResponse response) throws IOException {
+        CardFragmentCache.Fragments fragments = fragmentCache.forFields(fields);
+
+        // Fragment sizes are known up front, so send a Content-Length instead of chunking
+        response.setContentType(ndjson ? NDJSON : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLengthLong(contentLength(cards, fragments, ndjson));
+
+        ServletOutputStream out = response.getOutputStream();
+        writeCards(cards, fragments, ndjson, out);
+        out.flush();
+    }
+
+    /**
+     * Writes cards together with facet counts as
+     * {@code {"results": [...], "facets": {...}}}.
+     *
+     * @param cards Cards to write, in response order
+     * @param fields Field projection from {@link CardFragmentCache#parseFields(String)}
+     * @param facets Facet counts to serialize after the results
+     * @param response The servlet response to write to
+     */
+    public void write(List<CreditCard> cards, int fields, Map<String, Object> facets,
+                      HttpServletResponse response) throws IOException {
+        CardFragmentCache.Fragments fragments = fragmentCache.forFields(fields);
+        byte[] facetBytes = objectMapper.writeValueAsBytes(facets);
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLengthLong(RESULTS_PREFIX.length + contentLength(cards, fragments, false)
+                + FACETS_PREFIX.length + facetBytes.length + 1);
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(RESULTS_PREFIX);
+        writeCards(cards, fragments, false, out);
+        out.write(FACETS_PREFIX);
+        out.write(facetBytes);
+        out.write('}');
+        out.flush();
+    }
+
+    private static long contentLength(List<CreditCard> cards, CardFragmentCache.Fragments fragments, boolean ndjson) {
+        long length = ndjson ? 0 : 2 + Math.max(cards.size() - 1, 0);
+        for (CreditCard card : cards) {
+            length += fragments.get(card).length + (ndjson ? 1 : 0);
+        }
+        return length;
+    }
+
+    private static void writeCards(List<CreditCard> cards, CardFragmentCache.Fragments fragments, boolean ndjson,
+                                   OutputStream out) throws IOException {
+        if (!ndjson) {
+            out.write('[');
+        }
+        boolean first = true;
+        for (CreditCard card : cards) {
+            if (!ndjson && !first) {
+                out.write(',');
+            }
+            out.write(fragments.get(card));
+            if (ndjson) {
+                out.write('\n');
+            }
+            first = false;
+        }
+        if (!ndjson) {
+            out.write(']');
+        }
+    }
+}
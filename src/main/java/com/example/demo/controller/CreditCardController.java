@@ -1,11 +1,26 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.CreditCard;
+import com.example.demo.service.BatchQuery;
+import com.example.demo.service.BatchQueryService;
+import com.example.demo.service.CardIndex;
+import com.example.demo.service.CardQuery;
+import com.example.demo.service.CardSort;
 import com.example.demo.service.CreditCardService;
 import com.example.demo.service.SearchHistoryService;
+import com.example.demo.util.PageCursor;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -19,41 +34,164 @@ public class CreditCardController {
     @Autowired
     private SearchHistoryService searchHistoryService;
 
+    @Autowired
+    private CardResponseWriter cardResponseWriter;
+
+    @Autowired
+    private BatchQueryService batchQueryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Response header carrying the cursor of the next page, if any
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Upper bound on the page size a client may request
+    private static final int MAX_PAGE_SIZE = 1000;
+
 @CrossOrigin(origins = "http://127.0.0.1:5500")
 @GetMapping("/page-ranking")
 public ResponseEntity<Map<String, Object>> getPageRanking(@RequestParam String term) {
     return ResponseEntity.ok(creditCardService.getRankedSearchResults(term));
 }
     @GetMapping
-    public List<CreditCard> getAllCards(
+    public void getAllCards(
             @RequestParam(required = false) String bankName,
             @RequestParam(required = false) Double minFee,
             @RequestParam(required = false) Double maxFee,
             @RequestParam(required = false) Double minInterest,
             @RequestParam(required = false) Double maxInterest,
             @RequestParam(required = false) String search,
-             @RequestParam(required = false) Boolean rank) {
+             @RequestParam(required = false) Boolean rank, // accepted for compatibility; searches are always ranked
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "json") String format,
+            @RequestParam(required = false) String fields,
+            @RequestParam(defaultValue = "false") boolean facets,
+            @RequestParam(required = false) String sort,
+            HttpServletResponse response) throws IOException {
+
+        int projection;
+        CardSort cardSort;
+        try {
+            projection = CardFragmentCache.parseFields(fields);
+            cardSort = CardSort.parse(sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if (facets && ndjson) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "facets are not available with format=ndjson");
+        }
 
-        List<CreditCard> filteredCards = creditCardService.getAllCards();
+        CardQuery query = new CardQuery()
+                .setBankName(bankName)
+                .setMinFee(minFee)
+                .setMaxFee(maxFee)
+                .setMinInterest(minInterest)
+                .setMaxInterest(maxInterest)
+                .setSearch(search)
+                .setFacets(facets)
+                .setSort(cardSort);
 
-        if (bankName != null) {
-            filteredCards = creditCardService.getCardsByBank(filteredCards, bankName);
+        CardIndex snapshot = creditCardService.snapshot();
+        PageWindow window = resolvePage(snapshot.getCatalogVersion(), query.getResultKey(), limit, cursor);
+        if (window != null) {
+            // One extra result tells us whether a next page exists
+            query.setMaxResults((int) Math.min((long) window.offset() + window.pageSize() + 1, Integer.MAX_VALUE));
+        }
+        CardIndex.SearchResult result = creditCardService.execute(snapshot, query);
+        List<CreditCard> filteredCards = result.cards();
+
+        List<CreditCard> page = filteredCards;
+        if (window != null) {
+            int offset = Math.min(window.offset(), filteredCards.size());
+            int end = (int) Math.min((long) offset + window.pageSize(), filteredCards.size());
+            if (end < filteredCards.size()) {
+                response.setHeader(NEXT_CURSOR_HEADER,
+                        PageCursor.encode(snapshot.getCatalogVersion(), query.getResultKey(), end));
+            }
+            page = filteredCards.subList(offset, end);
+        }
+        if (facets) {
+            cardResponseWriter.write(page, projection, result.facets(), response);
+        } else {
+            cardResponseWriter.write(page, projection, ndjson, response);
         }
-        if (minFee != null && maxFee != null) {
-            filteredCards = creditCardService.getCardsByAnnualFees(filteredCards, minFee, maxFee);
+    }
+
+    /**
+     * Position and size of the requested page.
+     */
+    private record PageWindow(int offset, int pageSize) {
+    }
+
+    /**
+     * Works out which page is requested. Ordering is deterministic for a given
+     * catalog version and query, so the cursor only has to remember the
+     * position of the next result, plus which query it belongs to.
+     *
+     * @return The page window, or null when the request is not paginated
+     */
+    private PageWindow resolvePage(String catalogVersion, String queryKey, Integer limit, String cursor) {
+        if (limit == null && cursor == null) {
+            return null;
         }
-        if (minInterest != null && maxInterest != null) {
-            filteredCards = creditCardService.getCardsByPurchaseInterestRate(filteredCards, minInterest, maxInterest);
+        if (limit != null && limit <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
         }
-        if (search != null && !search.trim().isEmpty()) {
-            filteredCards = creditCardService.getCardsBySearchTerm(filteredCards, search.trim().toLowerCase());
+
+        int offset = 0;
+        if (cursor != null) {
+            PageCursor decoded;
+            try {
+                decoded = PageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+            if (!decoded.getCatalogVersion().equals(catalogVersion)) {
+                throw new ResponseStatusException(HttpStatus.GONE,
+                        "Cursor was issued for an older catalog version; restart from the first page");
+            }
+            if (!decoded.isForQuery(queryKey)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Cursor was issued for a different query; keep filters, search and sort unchanged");
+            }
+            offset = decoded.getOffset();
         }
-            if (rank != null && rank && search != null && !search.trim().isEmpty()) {
-        return creditCardService.rankCardsByRelevance(filteredCards, search);
+
+        int pageSize = limit == null ? MAX_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        return new PageWindow(offset, pageSize);
     }
-    
 
-        return filteredCards;
+    /**
+     * Cards most similar to the given one, from lists precomputed when the
+     * catalog was indexed.
+     */
+    @CrossOrigin(origins = "http://127.0.0.1:5500")
+    @GetMapping("/{id}/similar")
+    public void getSimilarCards(
+            @PathVariable int id,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            HttpServletResponse response) throws IOException {
+
+        int projection;
+        try {
+            projection = CardFragmentCache.parseFields(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (limit != null && limit <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+
+        CardIndex snapshot = creditCardService.snapshot();
+        if (id < 0 || id >= snapshot.getAllCards().size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No card with id " + id);
+        }
+        int count = limit == null ? snapshot.getMaxSimilarCards() : limit;
+        cardResponseWriter.write(creditCardService.getSimilarCards(snapshot, id, count), projection, false, response);
     }
 
     @CrossOrigin(origins = "http://127.0.0.1:5500")
@@ -98,10 +236,64 @@ public ResponseEntity<Map<String, Object>> getPageRanking(@RequestParam String t
         }
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * Re-reads the catalog and swaps in a new index snapshot, rebuilding only
+     * the shards whose cards changed. Requests in flight finish on the old one.
+     */
     @CrossOrigin(origins = "http://127.0.0.1:5500")
-@PostMapping("/rank")
-public ResponseEntity<List<CreditCard>> rankCards(@RequestBody List<CreditCard> cards) {
-    List<CreditCard> rankedCards = creditCardService.rankCards(cards);
-    return ResponseEntity.ok(rankedCards);
-}
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reloadCatalog() {
+        CardIndex snapshot = creditCardService.reload();
+        return ResponseEntity.ok(Map.of(
+                "catalogVersion", snapshot.getCatalogVersion(),
+                "shards", snapshot.getShardCount()));
+    }
+
+    /**
+     * Runs several heterogeneous queries in one round trip. Sub-queries run
+     * concurrently against the same index snapshot; each result carries its
+     * own status so one failing query does not fail the batch.
+     */
+    @CrossOrigin(origins = "http://127.0.0.1:5500")
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> runBatch(@RequestBody List<BatchQuery> queries) {
+        if (queries.size() > BatchQueryService.MAX_QUERIES) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch may contain at most " + BatchQueryService.MAX_QUERIES + " queries");
+        }
+        return ResponseEntity.ok(batchQueryService.execute(queries));
+    }
+
+    /**
+     * Orders a set of cards, given by ID, by relevance to a query or by a
+     * card attribute, scoring them against the resident index. The body is
+     * read with a streaming parser; see {@link RankRequest} for its shapes.
+     * The query and sort parameters apply when the body does not set them.
+     */
+    @CrossOrigin(origins = "http://127.0.0.1:5500")
+    @PostMapping("/rank")
+    public void rankCards(
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String fields,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        int projection;
+        RankRequest body;
+        CardSort cardSort;
+        CardIndex snapshot = creditCardService.snapshot();
+        try (JsonParser parser = objectMapper.getFactory().createParser(request.getInputStream())) {
+            projection = CardFragmentCache.parseFields(fields);
+            body = RankRequest.read(parser, snapshot.getAllCards().size());
+            cardSort = CardSort.parse(body.sort() != null ? body.sort() : sort);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        List<CreditCard> ranked = creditCardService.rankCards(snapshot, body.ids(),
+                body.query() != null ? body.query() : query, cardSort);
+        cardResponseWriter.write(ranked, projection, false, response);
+    }
 }
@@ -0,0 +1,143 @@
+package com.example.demo.controller;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Body of a rank request, read token by token with Jackson's streaming parser
+ * so that large bodies are never materialized as objects. Accepted shapes:
+ *
+ * <pre>
+ * {"ids": [3, 17, 42], "query": "travel insurance", "sort": "annualFee,asc"}
+ * [3, 17, 42]
+ * [{"id": 3, "cardTitle": ...}, {"id": 17, ...}]
+ * </pre>
+ *
+ * The last form is what clients used to post; of each card only {@code id}
+ * is read and every other field is skipped unparsed. Every ID must be a
+ * catalog ID; unknown top-level fields and trailing content are rejected.
+ *
+ * @param ids Catalog IDs of the cards to rank, in request order
+ * @param query Search text to rank by, or null
+ * @param sort Sort parameter as for card listings, or null
+ */
+record RankRequest(int[] ids, String query, String sort) {
+
+    /**
+     * @param parser Parser positioned before the request body
+     * @param cardCount Number of cards in the catalog; IDs must be below it
+     * @return The parsed request
+     * @throws IllegalArgumentException if the body is not one of the accepted shapes
+     *                                  or names a card that does not exist
+     */
+    static RankRequest read(JsonParser parser, int cardCount) throws IOException {
+        RankRequest request = readBody(parser, cardCount);
+        if (parser.nextToken() != null) {
+            throw new IllegalArgumentException("Unexpected content after the request body");
+        }
+        return request;
+    }
+
+    private static RankRequest readBody(JsonParser parser, int cardCount) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            return new RankRequest(readIds(parser, cardCount), null, null);
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Expected a JSON object or array");
+        }
+
+        int[] ids = null;
+        String query = null;
+        String sort = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            token = parser.nextToken();
+            switch (field) {
+                case "ids":
+                    if (token != JsonToken.START_ARRAY) {
+                        throw new IllegalArgumentException("ids must be an array");
+                    }
+                    ids = readIds(parser, cardCount);
+                    break;
+                case "query":
+                    query = readText(parser, field);
+                    break;
+                case "sort":
+                    sort = readText(parser, field);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+        if (ids == null) {
+            throw new IllegalArgumentException("ids is required");
+        }
+        return new RankRequest(ids, query, sort);
+    }
+
+    // Reads array elements up to the closing bracket: IDs or card objects
+    private static int[] readIds(JsonParser parser, int cardCount) throws IOException {
+        int[] ids = new int[64];
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            int id;
+            if (token == JsonToken.START_OBJECT) {
+                id = readCardId(parser, cardCount);
+            } else {
+                id = readId(parser, cardCount);
+            }
+
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = id;
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    // Reads the id of a card object, skipping its other fields
+    private static int readCardId(JsonParser parser, int cardCount) throws IOException {
+        int id = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (field.equals("id")) {
+                id = readId(parser, cardCount);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (id < 0) {
+            throw new IllegalArgumentException("Card object without an id");
+        }
+        return id;
+    }
+
+    // Reads the current token as a catalog ID
+    private static int readId(JsonParser parser, int cardCount) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+            throw new IllegalArgumentException("Card IDs must be integers");
+        }
+        // Checked before conversion so that huge numbers are not truncated to an int
+        if (parser.getNumberType() != JsonParser.NumberType.INT
+                || parser.getIntValue() < 0 || parser.getIntValue() >= cardCount) {
+            throw new IllegalArgumentException("No card with id " + parser.getText());
+        }
+        return parser.getIntValue();
+    }
+
+    private static String readText(JsonParser parser, String field) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            throw new IllegalArgumentException(field + " must be a string");
+        }
+        return parser.getText();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.SuggestionStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Streaming autocomplete: one event stream per client plus a lightweight
+ * POST per keystroke. The POST takes a form-encoded body, which browsers
+ * send as a simple CORS request, so keystrokes do not trigger preflights.
+ */
+@RestController
+@RequestMapping("/api/creditcards/suggest")
+public class SuggestionStreamController {
+
+    @Autowired
+    private SuggestionStreamService suggestionStreamService;
+
+    @CrossOrigin(origins = "http://127.0.0.1:5500")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter openStream() throws IOException {
+        try {
+            return suggestionStreamService.openSession();
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    @CrossOrigin(origins = "http://127.0.0.1:5500")
+    @PostMapping("/{sessionId}")
+    public ResponseEntity<Void> submitPrefix(@PathVariable String sessionId,
+                                             @RequestParam String prefix,
+                                             @RequestParam(defaultValue = "0") long seq) {
+        if (!suggestionStreamService.submitPrefix(sessionId, prefix, seq)) {
+            // The stream was closed or expired; the client should reconnect
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
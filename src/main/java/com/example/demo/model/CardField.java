@@ -0,0 +1,51 @@
+package com.example.demo.model;
+
+import java.util.function.Function;
+
+/**
+ * The JSON-visible fields of a {@link CreditCard}.
+ * Used to project card responses down to a subset of fields.
+ */
+public enum CardField {
+    ID("id", CreditCard::getId),
+    CARD_TITLE("cardTitle", CreditCard::getCardTitle),
+    CARD_IMAGES("cardImages", CreditCard::getCardImages),
+    ANNUAL_FEES("annualFees", CreditCard::getAnnualFees),
+    PURCHASE_INTEREST_RATE("purchaseInterestRate", CreditCard::getPurchaseInterestRate),
+    CASH_INTEREST_RATE("cashInterestRate", CreditCard::getCashInterestRate),
+    PRODUCT_VALUE_PROP("productValueProp", CreditCard::getProductValueProp),
+    PRODUCT_BENEFITS("productBenefits", CreditCard::getProductBenefits),
+    BANK_NAME("bankName", CreditCard::getBankName),
+    CARD_LINK("cardLink", CreditCard::getCardLink);
+
+    private final String jsonName;                   // Property name in JSON output
+    private final Function<CreditCard, Object> getter; // Reads the field value from a card
+
+    CardField(String jsonName, Function<CreditCard, Object> getter) {
+        this.jsonName = jsonName;
+        this.getter = getter;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    public Object valueOf(CreditCard card) {
+        return getter.apply(card);
+    }
+
+    /**
+     * Looks up a field by its JSON property name (case-insensitive).
+     *
+     * @param jsonName The property name, e.g. "bankName"
+     * @return The matching field, or null if there is none
+     */
+    public static CardField fromJsonName(String jsonName) {
+        for (CardField field : values()) {
+            if (field.jsonName.equalsIgnoreCase(jsonName)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
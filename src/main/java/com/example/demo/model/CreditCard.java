@@ -9,6 +9,7 @@ public class CreditCard {
     // Fields (Properties of a Credit Card)
     // =========================================
 
+    private int id;                    // Stable identifier (row position in the catalog)
     private String cardTitle;          // Title/name of the credit card
     private String cardImages;         // Image URLs or paths for the card
     private String annualFees;         // Annual fees associated with the card
@@ -53,6 +54,14 @@ public class CreditCard {
     // Getter and Setter Methods
     // =========================================
 
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public String getCardLink() {
         return cardLink;
     }
@@ -0,0 +1,40 @@
+package com.example.demo.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One sub-query of a batch request.
+ * The type names the endpoint it stands in for (e.g. "search", "autocomplete")
+ * and the params carry the same request parameters that endpoint accepts.
+ */
+public class BatchQuery {
+
+    private String id;                                  // Optional client-chosen ID, echoed in the result
+    private String type;                                // Query type, see BatchQueryService
+    private Map<String, String> params = new HashMap<>(); // Query parameters
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Map<String, String> getParams() {
+        return params;
+    }
+
+    public void setParams(Map<String, String> params) {
+        this.params = params == null ? new HashMap<>() : params;
+    }
+}
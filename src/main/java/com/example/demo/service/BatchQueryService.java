@@ -0,0 +1,170 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ExecutorFactory;
+import com.example.demo.model.CreditCard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Executes batches of heterogeneous queries concurrently.
+ * Every sub-query of a batch runs against the same {@link CardIndex} snapshot
+ * on a bounded executor from {@link ExecutorFactory}: a thread pool whose
+ * overflow runs on the calling request thread, or virtual threads under a
+ * concurrency limit when virtual threads are enabled.
+ *
+ * Supported query types mirror the read endpoints: search, autocomplete,
+ * spelling-suggestions, word-frequency, page-ranking and search-history.
+ */
+@Service
+public class BatchQueryService {
+
+    /** Maximum number of sub-queries accepted in one batch. */
+    public static final int MAX_QUERIES = 50;
+
+    private final CreditCardService creditCardService;
+    private final SearchHistoryService searchHistoryService;
+    private final AsyncTaskExecutor executor;
+    private final Duration timeout;
+
+    public BatchQueryService(CreditCardService creditCardService,
+                             SearchHistoryService searchHistoryService,
+                             ExecutorFactory executorFactory,
+                             @Value("${creditcards.batch.threads:0}") int threads,
+                             @Value("${creditcards.batch.queue-capacity:256}") int queueCapacity,
+                             @Value("${creditcards.batch.timeout:5s}") Duration timeout) {
+        this.creditCardService = creditCardService;
+        this.searchHistoryService = searchHistoryService;
+        this.timeout = timeout;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = executorFactory.createBounded("batch-query-", poolSize, queueCapacity);
+    }
+
+    /**
+     * Runs all queries of a batch and collects their results in request order.
+     *
+     * @param queries The sub-queries to run
+     * @return Map with the catalog version used and one result entry per query
+     */
+    public Map<String, Object> execute(List<BatchQuery> queries) {
+        CardIndex snapshot = creditCardService.snapshot();
+
+        List<Future<Object>> futures = new ArrayList<>(queries.size());
+        for (BatchQuery query : queries) {
+            futures.add(executor.submit(() -> run(snapshot, query)));
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<Map<String, Object>> results = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            results.add(collect(queries.get(i), futures.get(i), deadline));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("catalogVersion", snapshot.getCatalogVersion());
+        response.put("results", results);
+        return response;
+    }
+
+    // =========================================
+    // Query Dispatch
+    // =========================================
+
+    private Object run(CardIndex snapshot, BatchQuery query) {
+        Map<String, String> params = query.getParams();
+        String type = query.getType() == null ? "" : query.getType();
+
+        switch (type) {
+            case "search": {
+                CardQuery cardQuery = new CardQuery()
+                        .setBankName(params.get("bankName"))
+                        .setMinFee(doubleParam(params, "minFee"))
+                        .setMaxFee(doubleParam(params, "maxFee"))
+                        .setMinInterest(doubleParam(params, "minInterest"))
+                        .setMaxInterest(doubleParam(params, "maxInterest"))
+                        .setSearch(params.get("search"))
+                        .setSort(CardSort.parse(params.get("sort")));
+                Integer limit = intParam(params, "limit");
+                if (limit != null && limit <= 0) {
+                    throw new IllegalArgumentException("limit must be positive");
+                }
+                cardQuery.setMaxResults(limit);
+                List<CreditCard> cards = creditCardService.search(snapshot, cardQuery);
+                return limit == null ? cards : cards.subList(0, Math.min(limit, cards.size()));
+            }
+            case "autocomplete":
+                return snapshot.getAutocompleteSuggestions(requiredParam(params, "prefix"));
+            case "spelling-suggestions":
+                return snapshot.getSpellingSuggestions(requiredParam(params, "word"));
+            case "word-frequency": {
+                String word = requiredParam(params, "word");
+                return Map.of("word", word, "count", snapshot.getWordFrequency(word));
+            }
+            case "page-ranking":
+                return creditCardService.getRankedSearchResults(snapshot, requiredParam(params, "term"));
+            case "search-history": {
+                Integer limit = intParam(params, "limit");
+                return searchHistoryService.getPopularSearches(limit == null ? 10 : limit);
+            }
+            default:
+                throw new IllegalArgumentException("Unknown query type: " + query.getType());
+        }
+    }
+
+    private Map<String, Object> collect(BatchQuery query, Future<Object> future, long deadline) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (query.getId() != null) {
+            result.put("id", query.getId());
+        }
+        result.put("type", query.getType());
+
+        try {
+            Object body = future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            result.put("status", HttpStatus.OK.value());
+            result.put("body", body);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            result.put("status", HttpStatus.GATEWAY_TIMEOUT.value());
+            result.put("error", "Query did not finish within " + timeout.toMillis() + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            boolean badRequest = cause instanceof IllegalArgumentException;
+            result.put("status", (badRequest ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR).value());
+            result.put("error", cause.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            result.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+            result.put("error", "Batch was interrupted");
+        }
+        return result;
+    }
+
+    // =========================================
+    // Parameter Parsing Helpers
+    // =========================================
+
+    private static String requiredParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static Double doubleParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        return value == null || value.isBlank() ? null : Double.valueOf(value.trim());
+    }
+
+    private static Integer intParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        return value == null || value.isBlank() ? null : Integer.valueOf(value.trim());
+    }
+}
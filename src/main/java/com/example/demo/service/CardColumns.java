@@ -0,0 +1,291 @@
+package com.example.demo.service;
+
+import com.example.demo.model.CreditCard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Filterable card attributes stored column by column in primitive arrays
+ * indexed by card ID. Values are parsed once when the catalog is loaded, so
+ * filters and facet counts are plain array scans over a result bitmap, and
+ * sorted listings walk permutations that are also computed at load time.
+ */
+final class CardColumns {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CardColumns.class);
+
+    // Histogram bucket lower bounds; each bucket ends where the next begins
+    static final double[] FEE_BUCKETS = {0, 1, 50, 100, 150, 200};        // Dollars
+    static final double[] RATE_BUCKETS = {0, 10, 15, 20, 21, 22, 23};    // Percent
+
+    // =========================================
+    // Fields
+    // =========================================
+
+    private final int size;
+    private final List<String> bankNames;              // Bank ordinal -> name as listed
+    private final Map<String, Integer> bankOrdinalsByKey; // Normalized name -> bank ordinal
+    private final int[] bankOrdinals;                  // Card ID -> bank ordinal (-1 if none)
+    private final double[] annualFees;                 // Card ID -> dollars (NaN if unparseable)
+    private final double[] purchaseRates;              // Card ID -> percent (NaN if unparseable)
+    private final double[] cashRates;                  // Card ID -> percent (NaN if unparseable)
+    private final byte[] feeBuckets;                   // Card ID -> fee bucket (-1 if none)
+    private final byte[] purchaseRateBuckets;
+    private final byte[] cashRateBuckets;
+    private final int[][] ascending;                   // Sort key -> card IDs, smallest value first
+    private final int[][] descending;                  // Sort key -> card IDs, largest value first
+
+    CardColumns(List<CreditCard> cards) {
+        this.size = cards.size();
+        this.bankNames = new ArrayList<>();
+        this.bankOrdinalsByKey = new HashMap<>();
+        this.bankOrdinals = new int[size];
+        this.annualFees = new double[size];
+        this.purchaseRates = new double[size];
+        this.cashRates = new double[size];
+
+        for (int id = 0; id < size; id++) {
+            CreditCard card = cards.get(id);
+            String bank = card.getBankName();
+            bankOrdinals[id] = bank == null ? -1 : bankOrdinalsByKey.computeIfAbsent(bankKey(bank), key -> {
+                bankNames.add(bank.trim());
+                return bankNames.size() - 1;
+            });
+            annualFees[id] = parse(card.getAnnualFees(), "annual fee", 1);
+            purchaseRates[id] = parse(card.getPurchaseInterestRate(), "purchase interest rate", 100);
+            cashRates[id] = parse(card.getCashInterestRate(), "cash interest rate", 100);
+        }
+
+        this.feeBuckets = bucketize(annualFees, FEE_BUCKETS);
+        this.purchaseRateBuckets = bucketize(purchaseRates, RATE_BUCKETS);
+        this.cashRateBuckets = bucketize(cashRates, RATE_BUCKETS);
+
+        CardSort.Key[] keys = CardSort.Key.values();
+        this.ascending = new int[keys.length][];
+        this.descending = new int[keys.length][];
+        for (CardSort.Key key : keys) {
+            ascending[key.ordinal()] = permutation(values(key), false);
+            descending[key.ordinal()] = permutation(values(key), true);
+        }
+    }
+
+    /**
+     * @param key A sortable attribute
+     * @param id A card ID
+     * @return The card's value of the attribute (NaN if unparseable)
+     */
+    double value(CardSort.Key key, int id) {
+        return values(key)[id];
+    }
+
+    private double[] values(CardSort.Key key) {
+        switch (key) {
+            case ANNUAL_FEE:
+                return annualFees;
+            case PURCHASE_RATE:
+                return purchaseRates;
+            default:
+                return cashRates;
+        }
+    }
+
+    // Card IDs ordered by value, ties by ID; unparseable values always come last
+    private static int[] permutation(double[] values, boolean descending) {
+        Comparator<Integer> byValue = Comparator.comparingDouble(id -> values[id]);
+        Comparator<Integer> order = Comparator.<Integer>comparingInt(id -> Double.isNaN(values[id]) ? 1 : 0)
+                .thenComparing(descending ? byValue.reversed() : byValue)
+                .thenComparingInt(id -> id);
+        return IntStream.range(0, values.length).boxed().sorted(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String bankKey(String bankName) {
+        return bankName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static double parse(String value, String description, double scale) {
+        try {
+            return Double.parseDouble(value.replace("$", "").trim()) * scale;
+        } catch (NumberFormatException | NullPointerException e) {
+            LOGGER.warn("Invalid {} format: {}", description, value);
+            return Double.NaN;
+        }
+    }
+
+    private static byte[] bucketize(double[] values, double[] bounds) {
+        byte[] buckets = new byte[values.length];
+        for (int id = 0; id < values.length; id++) {
+            int bucket = -1; // NaN and values below the first bound fall in no bucket
+            for (int b = 0; b < bounds.length && values[id] >= bounds[b]; b++) {
+                bucket = b;
+            }
+            buckets[id] = (byte) bucket;
+        }
+        return buckets;
+    }
+
+    // =========================================
+    // Filtering
+    // =========================================
+
+    /**
+     * Evaluates the bank and range filters of a query.
+     * Range filters are inclusive and only apply when both bounds are set.
+     *
+     * @param query The filters to apply
+     * @return IDs of the cards passing every filter
+     */
+    BitSet filter(CardQuery query) {
+        BitSet ids = new BitSet(size);
+        ids.set(0, size);
+
+        if (query.getBankName() != null) {
+            Integer ordinal = bankOrdinalsByKey.get(bankKey(query.getBankName()));
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                if (ordinal == null || bankOrdinals[id] != ordinal) ids.clear(id);
+            }
+        }
+        if (query.getMinFee() != null && query.getMaxFee() != null) {
+            retainRange(ids, annualFees, query.getMinFee(), query.getMaxFee());
+        }
+        if (query.getMinInterest() != null && query.getMaxInterest() != null) {
+            retainRange(ids, purchaseRates, query.getMinInterest(), query.getMaxInterest());
+        }
+        return ids;
+    }
+
+    // NaN compares false, so unparseable values are dropped like out-of-range ones
+    private static void retainRange(BitSet ids, double[] values, double min, double max) {
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            if (!(values[id] >= min && values[id] <= max)) ids.clear(id);
+        }
+    }
+
+    // =========================================
+    // Sorting
+    // =========================================
+
+    /**
+     * Lists result cards in sort order by walking the presorted permutation
+     * and keeping members of the result, stopping once {@code limit} are found.
+     *
+     * @param sort The requested order
+     * @param ids The result to order
+     * @param limit Maximum number of IDs to return
+     * @return Card IDs in sort order
+     */
+    int[] sorted(CardSort sort, BitSet ids, int limit) {
+        int[] permutation = (sort.descending() ? descending : ascending)[sort.key().ordinal()];
+        int[] result = new int[Math.min(ids.cardinality(), limit)];
+        int count = 0;
+        for (int i = 0; i < permutation.length && count < result.length; i++) {
+            if (ids.get(permutation[i])) {
+                result[count++] = permutation[i];
+            }
+        }
+        return result;
+    }
+
+    // =========================================
+    // Facets
+    // =========================================
+
+    /**
+     * Counts banks and fee / rate buckets over a result in a single pass.
+     *
+     * @param ids The result to count
+     * @return Counts that can be merged with other shards' counts
+     */
+    FacetCounts facets(BitSet ids) {
+        int[] bankCounts = new int[bankNames.size()];
+        FacetCounts counts = new FacetCounts();
+
+        for (int id = ids.nextSetBit(0); id >= 0 && id < size; id = ids.nextSetBit(id + 1)) {
+            if (bankOrdinals[id] >= 0) bankCounts[bankOrdinals[id]]++;
+            if (feeBuckets[id] >= 0) counts.fees[feeBuckets[id]]++;
+            if (purchaseRateBuckets[id] >= 0) counts.purchaseRates[purchaseRateBuckets[id]]++;
+            if (cashRateBuckets[id] >= 0) counts.cashRates[cashRateBuckets[id]]++;
+        }
+        for (int ordinal = 0; ordinal < bankCounts.length; ordinal++) {
+            if (bankCounts[ordinal] > 0) {
+                counts.addBank(bankNames.get(ordinal), bankCounts[ordinal]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Facet counts of one or more shards.
+     */
+    static final class FacetCounts {
+        private final Map<String, String> bankNames = new HashMap<>();    // Normalized name -> name as listed
+        private final Map<String, Integer> bankCounts = new HashMap<>();  // Normalized name -> cards
+        private final int[] fees = new int[FEE_BUCKETS.length];
+        private final int[] purchaseRates = new int[RATE_BUCKETS.length];
+        private final int[] cashRates = new int[RATE_BUCKETS.length];
+
+        private void addBank(String name, int count) {
+            String key = bankKey(name);
+            bankNames.putIfAbsent(key, name);
+            bankCounts.merge(key, count, Integer::sum);
+        }
+
+        /**
+         * Adds another shard's counts to these.
+         */
+        void merge(FacetCounts other) {
+            other.bankCounts.forEach((key, count) -> addBank(other.bankNames.get(key), count));
+            for (int b = 0; b < fees.length; b++) fees[b] += other.fees[b];
+            for (int b = 0; b < purchaseRates.length; b++) purchaseRates[b] += other.purchaseRates[b];
+            for (int b = 0; b < cashRates.length; b++) cashRates[b] += other.cashRates[b];
+        }
+
+        /**
+         * Buckets include their lower bound and exclude their upper bound
+         * ({@code to} is absent for the last one); every bucket is listed even
+         * when empty so clients can render a stable histogram.
+         *
+         * @return Facet name -> list of {value|from,to, count} entries
+         */
+        Map<String, Object> toMap() {
+            Map<String, Object> facets = new LinkedHashMap<>();
+            facets.put("bankName", bankFacet());
+            facets.put("annualFees", histogram(FEE_BUCKETS, fees));
+            facets.put("purchaseInterestRate", histogram(RATE_BUCKETS, purchaseRates));
+            facets.put("cashInterestRate", histogram(RATE_BUCKETS, cashRates));
+            return facets;
+        }
+
+        // Banks present in the result, most cards first
+        private List<Map<String, Object>> bankFacet() {
+            List<String> keys = new ArrayList<>(bankCounts.keySet());
+            keys.sort(Comparator.<String>comparingInt(key -> -bankCounts.get(key))
+                    .thenComparing(bankNames::get));
+
+            List<Map<String, Object>> entries = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("value", bankNames.get(key));
+                entry.put("count", bankCounts.get(key));
+                entries.add(entry);
+            }
+            return entries;
+        }
+
+        private static List<Map<String, Object>> histogram(double[] bounds, int[] counts) {
+            List<Map<String, Object>> buckets = new ArrayList<>(bounds.length);
+            for (int b = 0; b < bounds.length; b++) {
+                Map<String, Object> bucket = new LinkedHashMap<>();
+                bucket.put("from", bounds[b]);
+                if (b + 1 < bounds.length) {
+                    bucket.put("to", bounds[b + 1]);
+                }
+                bucket.put("count", counts[b]);
+                buckets.add(bucket);
+            }
+            return buckets;
+        }
+    }
+}
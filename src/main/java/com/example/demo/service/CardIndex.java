@@ -0,0 +1,464 @@
+package com.example.demo.service;
+
+import com.example.demo.config.IndexProperties;
+import com.example.demo.config.SearchProperties;
+import com.example.demo.model.CreditCard;
+import com.example.demo.util.Analyzer;
+import com.example.demo.util.TermDictionary;
+import com.example.demo.util.TermVector;
+import com.example.demo.util.WandSearcher;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of the card catalog and every structure built from it.
+ * The catalog is split into {@link CardShard}s of consecutive card IDs, each
+ * with its own text index, token positions, autocomplete trie, spell checker
+ * and filter columns. Queries are scattered to every shard in parallel and
+ * the shards' top results are merged; facet counts are summed. Similar-card
+ * lists span all shards and are computed once per snapshot.
+ * A snapshot is never modified after construction, so any number of threads
+ * can query it concurrently and several queries can be answered from the
+ * same consistent view of the catalog.
+ */
+public class CardIndex {
+
+    // =========================================
+    // Fields
+    // =========================================
+
+    private final List<CreditCard> creditCards;
+    private final String catalogVersion; // Content fingerprint, used to derive HTTP ETags
+    private final CardShard[] shards;    // Consecutive card ID ranges, in ID order
+    private final ForkJoinPool pool;     // Runs shard work in parallel; null = one thread
+    private final CardNeighbors neighbors;
+
+    // =========================================
+    // Construction
+    // =========================================
+
+    /**
+     * Builds all search structures for the given catalog as a single shard.
+     *
+     * @param creditCards The cards to index, in catalog (ID) order
+     * @param searchProperties BM25 parameters and field boosts
+     */
+    public CardIndex(List<CreditCard> creditCards, SearchProperties searchProperties) {
+        this(creditCards, searchProperties, null, null, null);
+    }
+
+    /**
+     * Builds the catalog's shards in parallel. Shards of the previous snapshot
+     * covering the same IDs with identical cards are reused as they are.
+     *
+     * @param creditCards The cards to index, in catalog (ID) order
+     * @param searchProperties BM25 parameters and field boosts
+     * @param indexProperties Shard layout, or null for a single shard
+     * @param pool Pool for building and querying shards, or null to stay on the caller
+     * @param previous Snapshot being replaced, or null
+     */
+    public CardIndex(List<CreditCard> creditCards, SearchProperties searchProperties,
+                     IndexProperties indexProperties, ForkJoinPool pool, CardIndex previous) {
+        this.creditCards = Collections.unmodifiableList(new ArrayList<>(creditCards));
+        this.catalogVersion = computeCatalogVersion(creditCards);
+        this.pool = pool;
+
+        int count = indexProperties == null ? 1 : indexProperties.shardCount(this.creditCards.size());
+        int shardSize = Math.max(1, (this.creditCards.size() + count - 1) / count);
+        Map<Integer, CardShard> reusable = new HashMap<>();
+        if (previous != null) {
+            for (CardShard shard : previous.shards) {
+                reusable.put(shard.getBase(), shard);
+            }
+        }
+
+        this.shards = new CardShard[count];
+        scatter(i -> {
+            int base = Math.min(i * shardSize, this.creditCards.size());
+            List<CreditCard> cards = this.creditCards.subList(base, Math.min(base + shardSize, this.creditCards.size()));
+            String fingerprint = computeCatalogVersion(cards);
+            CardShard old = reusable.get(base);
+            shards[i] = old != null && old.size() == cards.size() && old.getFingerprint().equals(fingerprint)
+                    ? old
+                    : new CardShard(base, cards, fingerprint, searchProperties);
+            return null;
+        }, count);
+
+        int similarCards = (indexProperties == null ? new IndexProperties() : indexProperties).getSimilarCards();
+        this.neighbors = buildNeighbors(Math.max(similarCards, 0));
+    }
+
+    /**
+     * Precomputes every card's similar cards, splitting the cards into one
+     * range per pool thread. Shards number terms independently, so term IDs
+     * are first mapped to one catalog-wide dictionary.
+     */
+    private CardNeighbors buildNeighbors(int k) {
+        TermDictionary terms = new TermDictionary();
+        int[][] termIds = new int[creditCards.size()][];
+        int[][] frequencies = new int[creditCards.size()][];
+        for (CardShard shard : shards) {
+            int[] globalIds = new int[shard.getTermCount()];
+            for (int termId = 0; termId < globalIds.length; termId++) {
+                char[] term = shard.getTerm(termId).toCharArray();
+                globalIds[termId] = terms.add(term, term.length);
+            }
+            for (int local = 0; local < shard.size(); local++) {
+                TermVector vector = shard.getTermVector(local);
+                int id = shard.getBase() + local;
+                termIds[id] = new int[vector.size()];
+                frequencies[id] = new int[vector.size()];
+                for (int i = 0; i < vector.size(); i++) {
+                    termIds[id][i] = globalIds[vector.termId(i)];
+                    frequencies[id][i] = vector.frequencyAt(i);
+                }
+            }
+        }
+
+        CardNeighbors.Builder builder = new CardNeighbors.Builder(termIds, frequencies, terms.size(), k);
+        int ranges = pool == null ? 1 : pool.getParallelism();
+        int rangeSize = Math.max(1, (builder.size() + ranges - 1) / ranges);
+        scatter(i -> {
+            builder.computeRange(Math.min(i * rangeSize, builder.size()), Math.min((i + 1) * rangeSize, builder.size()));
+            return null;
+        }, ranges);
+        return builder.build();
+    }
+
+    /**
+     * Fingerprints the catalog contents so that the version only changes when
+     * the card data itself changes (e.g. a new spreadsheet is deployed).
+     */
+    private static String computeCatalogVersion(List<CreditCard> cards) {
+        StringBuilder content = new StringBuilder();
+        for (CreditCard card : cards) {
+            content.append(card.getCardTitle()).append('\u001f')
+                    .append(card.getCardImages()).append('\u001f')
+                    .append(card.getAnnualFees()).append('\u001f')
+                    .append(card.getPurchaseInterestRate()).append('\u001f')
+                    .append(card.getCashInterestRate()).append('\u001f')
+                    .append(card.getProductValueProp()).append('\u001f')
+                    .append(card.getProductBenefits()).append('\u001f')
+                    .append(card.getBankName()).append('\u001f')
+                    .append(card.getCardLink()).append('\u001e');
+        }
+        return DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+
+    /**
+     * Runs a task for each of {@code count} shards: shard 0 on the calling
+     * thread, the others on the pool, and waits for all of them.
+     *
+     * @return Each shard's result, by shard index
+     */
+    private <T> List<T> scatter(Function<Integer, T> task, int count) {
+        List<ForkJoinTask<T>> forked = new ArrayList<>(count);
+        if (pool != null) {
+            for (int i = 1; i < count; i++) {
+                int shard = i;
+                forked.add(pool.submit(() -> task.apply(shard)));
+            }
+        }
+
+        List<T> results = new ArrayList<>(count);
+        results.add(task.apply(0));
+        for (int i = 1; i < count; i++) {
+            results.add(pool != null ? forked.get(i - 1).join() : task.apply(i));
+        }
+        return results;
+    }
+
+    private <T> List<T> scatter(Function<CardShard, T> task) {
+        return scatter(i -> task.apply(shards[i]), shards.length);
+    }
+
+    // Index of the shard holding a card ID
+    private int shardIndex(int id) {
+        int i = 0;
+        while (i + 1 < shards.length && shards[i + 1].getBase() <= id) {
+            i++;
+        }
+        return i;
+    }
+
+    // =========================================
+    // Catalog Access
+    // =========================================
+
+    public List<CreditCard> getAllCards() {
+        return creditCards;
+    }
+
+    public String getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    /**
+     * @return Number of shards the catalog is split into
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // Shard at a position in ID order, for checking which shards a rebuild reused
+    CardShard getShard(int index) {
+        return shards[index];
+    }
+
+    // =========================================
+    // Query Methods
+    // =========================================
+
+    /**
+     * Cards matching a query, plus facet counts when the query asks for them.
+     *
+     * @param cards Matching cards in response order
+     * @param facets Facet counts over every matching card (not just the
+     *               returned ones), or null if not requested
+     */
+    public record SearchResult(List<CreditCard> cards, Map<String, Object> facets) {
+    }
+
+    /**
+     * Applies every filter of a query to the catalog, ranking the result by
+     * relevance when the query has a search term.
+     *
+     * @param query The filters to apply
+     * @return Matching cards in the query's sort order if it has one, else ranked
+     *         when searching and in catalog order otherwise; at most
+     *         {@link CardQuery#getMaxResults()}
+     */
+    public List<CreditCard> search(CardQuery query) {
+        return execute(query).cards();
+    }
+
+    /**
+     * Like {@link #search(CardQuery)}, additionally counting facets over the
+     * full result when {@link CardQuery#isFacets()} is set.
+     *
+     * Every shard returns its own first {@code maxResults} cards in query
+     * order; those lists are merged, so the overall first results are exact.
+     */
+    public SearchResult execute(CardQuery query) {
+        int maxResults = query.getMaxResults() == null ? creditCards.size() : query.getMaxResults();
+        return merge(scatter(shard -> shard.execute(query, maxResults)), query.isFacets(), maxResults);
+    }
+
+    /**
+     * Orders the given cards by relevance to a query, or by a card attribute.
+     * Unknown and repeated IDs are ignored, as are cards not matching any
+     * term of the query. Without a query or sort the cards keep their order.
+     *
+     * @param ids Catalog IDs of the cards to order
+     * @param search Search text to rank by, or null
+     * @param sort Attribute order, or null to rank by relevance
+     * @return The cards in the requested order
+     */
+    public List<CreditCard> rankCards(int[] ids, String search, CardSort sort) {
+        List<CreditCard> cards = new ArrayList<>(ids.length);
+        BitSet[] candidateIds = new BitSet[shards.length];
+        for (int s = 0; s < shards.length; s++) {
+            candidateIds[s] = new BitSet(shards[s].size());
+        }
+        for (int id : ids) {
+            if (id < 0 || id >= creditCards.size()) continue;
+            int s = shardIndex(id);
+            if (!candidateIds[s].get(id - shards[s].getBase())) {
+                candidateIds[s].set(id - shards[s].getBase());
+                cards.add(creditCards.get(id));
+            }
+        }
+
+        CardQuery query = new CardQuery().setSearch(search).setSort(sort);
+        if (!query.hasSearch() && sort == null) {
+            return cards;
+        }
+        int maxResults = cards.size();
+        return merge(scatter(i -> shards[i].execute(query, candidateIds[i], maxResults), shards.length),
+                false, maxResults).cards();
+    }
+
+    /**
+     * Merges the shards' result lists, each already in query order, and sums
+     * their facet counts.
+     */
+    private SearchResult merge(List<CardShard.Result> results, boolean facetsRequested, int maxResults) {
+        // K-way merge of the shards' lists by key, ties in catalog order
+        int[] next = new int[results.size()];
+        List<CreditCard> cards = new ArrayList<>();
+        while (cards.size() < maxResults) {
+            int best = -1;
+            for (int s = 0; s < results.size(); s++) {
+                if (next[s] < results.get(s).ids().length && (best < 0 || compare(results, s, next[s], best, next[best]) < 0)) {
+                    best = s;
+                }
+            }
+            if (best < 0) break;
+            cards.add(creditCards.get(results.get(best).ids()[next[best]++]));
+        }
+
+        CardColumns.FacetCounts facets = null;
+        if (facetsRequested) {
+            facets = results.get(0).facets();
+            for (int s = 1; s < results.size(); s++) {
+                facets.merge(results.get(s).facets());
+            }
+        }
+        return new SearchResult(cards, facets == null ? null : facets.toMap());
+    }
+
+    private static int compare(List<CardShard.Result> results, int s1, int i1, int s2, int i2) {
+        int byKey = Double.compare(results.get(s1).keys()[i1], results.get(s2).keys()[i2]);
+        return byKey != 0 ? byKey : Integer.compare(results.get(s1).ids()[i1], results.get(s2).ids()[i2]);
+    }
+
+    /**
+     * Cards most similar to the given one by cosine similarity of their
+     * TF-IDF term vectors, looked up from the lists precomputed for this
+     * snapshot.
+     *
+     * @param id A card ID of this snapshot
+     * @param limit Maximum number of cards; at most {@link #getMaxSimilarCards()} are kept
+     * @return Similar cards, most similar first
+     */
+    public List<CreditCard> getSimilarCards(int id, int limit) {
+        List<CreditCard> cards = new ArrayList<>();
+        for (int neighbor : neighbors.neighbors(id, limit)) {
+            cards.add(creditCards.get(neighbor));
+        }
+        return cards;
+    }
+
+    /**
+     * @return Number of similar cards precomputed per card
+     */
+    public int getMaxSimilarCards() {
+        return neighbors.getK();
+    }
+
+    public List<String> getAutocompleteSuggestions(String prefix) {
+        return distinct(scatter(shard -> shard.getAutocompleteSuggestions(prefix.toLowerCase())), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns at most {@code limit} completions, without walking the rest of the trie.
+     */
+    public List<String> getAutocompleteSuggestions(String prefix, int limit) {
+        return distinct(scatter(shard -> shard.getAutocompleteSuggestions(prefix.toLowerCase(), limit)), limit);
+    }
+
+    public List<String> getSpellingSuggestions(String word) {
+        return distinct(scatter(shard -> shard.getSpellingSuggestions(word, 3)), 3);
+    }
+
+    // Concatenates the shards' lists in shard order, dropping repeats
+    private static List<String> distinct(List<List<String>> lists, int limit) {
+        Set<String> merged = new LinkedHashSet<>();
+        for (List<String> list : lists) {
+            merged.addAll(list);
+        }
+        return merged.stream().limit(limit).collect(Collectors.toList());
+    }
+
+    public int getWordFrequency(String word) {
+        int frequency = 0;
+        for (CardShard shard : shards) {
+            frequency += shard.getWordFrequency(word);
+        }
+        return frequency;
+    }
+
+    /**
+     * Ranks the whole catalog for a term and reports per-card relevance
+     * scores and term occurrence counts.
+     *
+     * @param searchTerm The term to rank by
+     * @return Map with the search term and the ordered per-card results
+     */
+    public Map<String, Object> getRankedSearchResults(String searchTerm) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        List<CreditCard> cards = rankCatalog(searchTerm);
+
+        // Calculate TF-IDF scores
+        Map<CreditCard, Double> scores = new HashMap<>();
+        Map<CreditCard, Integer> occurrences = new HashMap<>();
+
+        List<String> terms = searchTerm == null ? List.of() : new Analyzer().tokenize(searchTerm);
+        int totalCards = creditCards.size();
+        int[] docFrequencies = new int[terms.size()];
+        for (CardShard shard : shards) {
+            for (int t = 0; t < terms.size(); t++) {
+                docFrequencies[t] += shard.getDocFrequency(terms.get(t));
+            }
+        }
+
+        for (CreditCard card : cards) {
+            double score = 0.0;
+            int termCount = 0;
+            CardShard shard = shards[shardIndex(card.getId())];
+            TermVector vector = shard.getTermVector(card.getId() - shard.getBase());
+
+            for (int t = 0; t < terms.size(); t++) {
+                // Count whole-token occurrences
+                int count = vector.frequency(shard.getTermId(terms.get(t)));
+                termCount += count;
+
+                // Calculate TF-IDF
+                if (count > 0) {
+                    double tf = (double) count / vector.length();
+                    double idf = Math.log((double) totalCards / docFrequencies[t]);
+                    score += tf * idf;
+                }
+            }
+
+            scores.put(card, score);
+            occurrences.put(card, termCount);
+        }
+
+        // Sort cards by relevance score
+        List<CreditCard> sortedCards = cards.stream()
+            .sorted((c1, c2) -> Double.compare(scores.get(c2), scores.get(c1)))
+            .collect(Collectors.toList());
+
+        // Prepare results
+        result.put("searchTerm", searchTerm);
+
+        List<Map<String, Object>> rankedResults = new ArrayList<>();
+        for (CreditCard card : sortedCards) {
+            Map<String, Object> cardResult = new LinkedHashMap<>();
+            cardResult.put("title", card.getCardTitle());
+            cardResult.put("bank", card.getBankName());
+            cardResult.put("url", card.getCardLink());
+            cardResult.put("relevance", scores.get(card));
+            cardResult.put("occurrences", occurrences.get(card));
+            rankedResults.add(cardResult);
+        }
+
+        result.put("results", rankedResults);
+        return result;
+    }
+
+    // Whole catalog by BM25 relevance; cards matching no query term are dropped
+    private List<CreditCard> rankCatalog(String query) {
+        if (query == null || query.trim().isEmpty()) {
+            return creditCards;
+        }
+        List<List<WandSearcher.ScoredDoc>> results = scatter(shard -> {
+            BitSet candidateIds = new BitSet(shard.size());
+            candidateIds.set(0, shard.size());
+            return shard.rank(query, candidateIds, shard.size());
+        });
+        return results.stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingDouble(WandSearcher.ScoredDoc::score).reversed()
+                        .thenComparingInt(WandSearcher.ScoredDoc::docId))
+                .map(doc -> creditCards.get(doc.docId()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.demo.service;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed "similar cards" lists: for every card, the {@code k} other
+ * cards whose TF-IDF vectors have the highest cosine similarity to it.
+ *
+ * Lists are computed once per snapshot with an inverted-index all-pairs pass:
+ * a card's similarities are accumulated by walking only the postings of its
+ * own terms, so cards sharing no term with it are never visited. They are
+ * stored as a flat array of {@code k} slots per card, so a lookup is an
+ * array slice.
+ */
+final class CardNeighbors {
+
+    private final int k;
+    private final int[] neighbors;         // Card ID * k + rank -> neighbor ID (-1 if fewer than k)
+
+    private CardNeighbors(int k, int[] neighbors) {
+        this.k = k;
+        this.neighbors = neighbors;
+    }
+
+    /**
+     * @return Number of neighbors kept per card
+     */
+    int getK() {
+        return k;
+    }
+
+    /**
+     * @param id A card ID
+     * @param limit Maximum number of neighbors to return
+     * @return IDs of the most similar cards, most similar first
+     */
+    int[] neighbors(int id, int limit) {
+        int from = id * k;
+        int count = 0;
+        while (count < Math.min(limit, k) && neighbors[from + count] >= 0) {
+            count++;
+        }
+        return Arrays.copyOfRange(neighbors, from, from + count);
+    }
+
+    // =========================================
+    // Construction
+    // =========================================
+
+    /**
+     * Collects the card vectors and computes neighbor lists range by range.
+     * {@link #computeRange(int, int)} only reads shared state and writes
+     * the slots of its own cards, so disjoint ranges may run in parallel.
+     */
+    static final class Builder {
+        private final int k;
+        private final int size;
+        private final int[][] termIds;         // Card ID -> term IDs
+        private final float[][] weights;       // Card ID -> unit-length TF-IDF weights, by term
+        private int[][] postingIds;            // Term ID -> IDs of the cards containing it
+        private float[][] postingWeights;      // Term ID -> the cards' weights for the term
+        private final int[] neighbors;
+        private final float[] similarities;    // Card ID * k + rank -> cosine similarity
+
+        /**
+         * @param termIds Card ID -> distinct catalog-wide term IDs of the card
+         * @param frequencies Card ID -> occurrences of each of those terms
+         * @param termCount Number of distinct term IDs
+         * @param k Neighbors to keep per card
+         */
+        Builder(int[][] termIds, int[][] frequencies, int termCount, int k) {
+            this.k = k;
+            this.size = termIds.length;
+            this.termIds = termIds;
+            this.weights = new float[size][];
+            this.neighbors = new int[size * k];
+            this.similarities = new float[size * k];
+            Arrays.fill(neighbors, -1);
+
+            int[] docFrequencies = new int[termCount];
+            for (int[] terms : termIds) {
+                for (int term : terms) {
+                    docFrequencies[term]++;
+                }
+            }
+
+            // Same TF-IDF weighting as page ranking, scaled to unit length so
+            // that a dot product is the cosine similarity
+            for (int id = 0; id < size; id++) {
+                int length = 0;
+                for (int frequency : frequencies[id]) {
+                    length += frequency;
+                }
+                float[] vector = new float[termIds[id].length];
+                double norm = 0;
+                for (int t = 0; t < vector.length; t++) {
+                    double tf = (double) frequencies[id][t] / length;
+                    double idf = Math.log((double) size / docFrequencies[termIds[id][t]]);
+                    vector[t] = (float) (tf * idf);
+                    norm += (double) vector[t] * vector[t];
+                }
+                if (norm > 0) {
+                    float scale = (float) (1 / Math.sqrt(norm));
+                    for (int t = 0; t < vector.length; t++) {
+                        vector[t] *= scale;
+                    }
+                }
+                weights[id] = vector;
+            }
+
+            // Terms in every card have zero weight and are left out of the postings
+            this.postingIds = new int[termCount][];
+            this.postingWeights = new float[termCount][];
+            int[] fill = new int[termCount];
+            for (int term = 0; term < termCount; term++) {
+                int df = docFrequencies[term] < size ? docFrequencies[term] : 0;
+                postingIds[term] = new int[df];
+                postingWeights[term] = new float[df];
+            }
+            for (int id = 0; id < size; id++) {
+                for (int t = 0; t < termIds[id].length; t++) {
+                    int term = termIds[id][t];
+                    if (fill[term] < postingIds[term].length) {
+                        postingIds[term][fill[term]] = id;
+                        postingWeights[term][fill[term]++] = weights[id][t];
+                    }
+                }
+            }
+        }
+
+        /**
+         * Computes the neighbor lists of cards {@code from} (inclusive) to
+         * {@code to} (exclusive).
+         */
+        void computeRange(int from, int to) {
+            if (k == 0) {
+                return;
+            }
+            float[] scores = new float[size];
+            int[] touched = new int[size];
+            for (int id = from; id < to; id++) {
+                // Accumulate dot products over the postings of the card's terms
+                int touchedCount = 0;
+                for (int t = 0; t < termIds[id].length; t++) {
+                    float weight = weights[id][t];
+                    int[] ids = postingIds[termIds[id][t]];
+                    float[] otherWeights = postingWeights[termIds[id][t]];
+                    for (int p = 0; p < ids.length; p++) {
+                        if (scores[ids[p]] == 0) touched[touchedCount++] = ids[p];
+                        scores[ids[p]] += weight * otherWeights[p];
+                    }
+                }
+
+                // Keep the k best in the card's slots, ties by lower card ID
+                int base = id * k;
+                int kept = 0;
+                for (int i = 0; i < touchedCount; i++) {
+                    int other = touched[i];
+                    float score = scores[other];
+                    scores[other] = 0;
+                    if (other == id || score <= 0 || (kept == k && !better(score, other, similarities[base + k - 1], neighbors[base + k - 1]))) {
+                        continue;
+                    }
+                    int slot = kept < k ? kept++ : k - 1;
+                    while (slot > 0 && better(score, other, similarities[base + slot - 1], neighbors[base + slot - 1])) {
+                        neighbors[base + slot] = neighbors[base + slot - 1];
+                        similarities[base + slot] = similarities[base + slot - 1];
+                        slot--;
+                    }
+                    neighbors[base + slot] = other;
+                    similarities[base + slot] = score;
+                }
+            }
+        }
+
+        private static boolean better(float score, int id, float otherScore, int otherId) {
+            return score > otherScore || (score == otherScore && id < otherId);
+        }
+
+        int size() {
+            return size;
+        }
+
+        CardNeighbors build() {
+            postingIds = null;
+            postingWeights = null;
+            return new CardNeighbors(k, neighbors);
+        }
+    }
+}
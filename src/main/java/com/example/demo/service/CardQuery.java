@@ -0,0 +1,117 @@
+package com.example.demo.service;
+
+/**
+ * Filter and search criteria for a card listing query.
+ * Range filters only apply when both of their bounds are set.
+ */
+public class CardQuery {
+
+    private String bankName;      // Exact bank name match (case-insensitive)
+    private Double minFee;        // Annual fee range, in dollars
+    private Double maxFee;
+    private Double minInterest;   // Purchase interest rate range, in percent
+    private Double maxInterest;
+    private String search;        // Free-text search; results are ranked by relevance
+    private Integer maxResults;   // Stop after this many results (null = all)
+    private boolean facets;       // Also count facets over the full result
+    private CardSort sort;        // Order by a card attribute instead of relevance (null = default)
+
+    public String getBankName() {
+        return bankName;
+    }
+
+    public CardQuery setBankName(String bankName) {
+        this.bankName = bankName;
+        return this;
+    }
+
+    public Double getMinFee() {
+        return minFee;
+    }
+
+    public CardQuery setMinFee(Double minFee) {
+        this.minFee = minFee;
+        return this;
+    }
+
+    public Double getMaxFee() {
+        return maxFee;
+    }
+
+    public CardQuery setMaxFee(Double maxFee) {
+        this.maxFee = maxFee;
+        return this;
+    }
+
+    public Double getMinInterest() {
+        return minInterest;
+    }
+
+    public CardQuery setMinInterest(Double minInterest) {
+        this.minInterest = minInterest;
+        return this;
+    }
+
+    public Double getMaxInterest() {
+        return maxInterest;
+    }
+
+    public CardQuery setMaxInterest(Double maxInterest) {
+        this.maxInterest = maxInterest;
+        return this;
+    }
+
+    public String getSearch() {
+        return search;
+    }
+
+    public CardQuery setSearch(String search) {
+        this.search = search;
+        return this;
+    }
+
+    public Integer getMaxResults() {
+        return maxResults;
+    }
+
+    public CardQuery setMaxResults(Integer maxResults) {
+        this.maxResults = maxResults;
+        return this;
+    }
+
+    public boolean isFacets() {
+        return facets;
+    }
+
+    public CardQuery setFacets(boolean facets) {
+        this.facets = facets;
+        return this;
+    }
+
+    public CardSort getSort() {
+        return sort;
+    }
+
+    public CardQuery setSort(CardSort sort) {
+        this.sort = sort;
+        return this;
+    }
+
+    public boolean hasSearch() {
+        return search != null && !search.trim().isEmpty();
+    }
+
+    /**
+     * Identifies which cards the query returns and in what order; pagination
+     * and facets are left out. Used to tie page cursors to their query.
+     *
+     * @return Equal strings for queries with equal criteria
+     */
+    public String getResultKey() {
+        return "bank=" + (bankName == null ? "" : bankName.trim().toLowerCase())
+                + "&fee=" + minFee + "," + maxFee
+                + "&interest=" + minInterest + "," + maxInterest
+                + "&search=" + (hasSearch() ? search.trim().toLowerCase() : "")
+                + "&sort=" + (sort == null ? "" : sort.key() + (sort.descending() ? ",desc" : ",asc"));
+    }
+}
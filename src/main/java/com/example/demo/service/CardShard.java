@@ -0,0 +1,366 @@
+package com.example.demo.service;
+
+import com.example.demo.config.SearchProperties;
+import com.example.demo.model.CardField;
+import com.example.demo.model.CreditCard;
+import com.example.demo.util.Analyzer;
+import com.example.demo.util.InvertedIndex;
+import com.example.demo.util.PositionIndex;
+import com.example.demo.util.SpellChecking;
+import com.example.demo.util.TermDictionary;
+import com.example.demo.util.TermVector;
+import com.example.demo.util.Trie;
+import com.example.demo.util.WandSearcher;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One contiguous range of card IDs with its own search structures: term
+ * dictionary, BM25 text index, token positions, autocomplete trie, spell
+ * checker and filter columns. All of them are fed by one {@link Analyzer}
+ * pass over the shard's card text, so they share a single vocabulary of
+ * integer term IDs.
+ *
+ * Internally a shard numbers its cards from 0 (local IDs); {@link #getBase()}
+ * is the catalog ID of local card 0. Relevance statistics (document
+ * frequencies, average field lengths) are per shard, as in most sharded
+ * search engines. A shard is immutable and only depends on its own cards,
+ * so it can be reused by a later snapshot if those cards did not change.
+ */
+final class CardShard {
+
+    // Analyzed text, one BM25-scored field per entry below
+    private static final CardField[] SEARCH_FIELDS = {
+            CardField.CARD_TITLE, CardField.PRODUCT_VALUE_PROP, CardField.PRODUCT_BENEFITS, CardField.BANK_NAME
+    };
+
+    // Quoted phrase, optionally followed by ~slop for a proximity match
+    private static final Pattern PHRASE_PATTERN = Pattern.compile("\"([^\"]*)\"(?:~(\\d+))?");
+
+    // Query analyzers keep their buffers between calls and are not thread-safe,
+    // so each thread reuses its own across queries and shards
+    private static final ThreadLocal<Analyzer> QUERY_ANALYZER = ThreadLocal.withInitial(Analyzer::new);
+
+    // =========================================
+    // Fields
+    // =========================================
+
+    private final int base;                     // Catalog ID of local card 0
+    private final int size;
+    private final String fingerprint;           // Content fingerprint of the shard's cards
+    private final Trie trie;
+    private final SpellChecking spellChecker;
+    private final TermDictionary dictionary;    // Term -> term ID
+    private final TermVector[] termVectors;     // Local ID -> terms of all search fields
+    private final InvertedIndex textIndex;
+    private final PositionIndex positionIndex;
+    private final CardColumns columns;          // Bank, fee and rate filters and facets
+
+    // =========================================
+    // Construction
+    // =========================================
+
+    /**
+     * Builds the search structures of one shard.
+     *
+     * @param base Catalog ID of the first card
+     * @param cards The shard's cards, in catalog order
+     * @param fingerprint Content fingerprint of the cards
+     * @param searchProperties BM25 parameters and field boosts
+     */
+    CardShard(int base, List<CreditCard> cards, String fingerprint, SearchProperties searchProperties) {
+        this.base = base;
+        this.size = cards.size();
+        this.fingerprint = fingerprint;
+
+        // Analyze every search field once; all structures below reuse the term IDs
+        Analyzer analyzer = new Analyzer();
+        this.dictionary = new TermDictionary();
+        int[][][] fieldTermIds = new int[size][][];
+        for (int id = 0; id < size; id++) {
+            CreditCard card = cards.get(id);
+            fieldTermIds[id] = new int[SEARCH_FIELDS.length][];
+            for (int field = 0; field < SEARCH_FIELDS.length; field++) {
+                fieldTermIds[id][field] = analyzer.intern((String) SEARCH_FIELDS[field].valueOf(card), dictionary);
+            }
+        }
+
+        this.termVectors = new TermVector[size];
+        int[] termFrequencies = new int[dictionary.size()];
+        for (int id = 0; id < size; id++) {
+            termVectors[id] = TermVector.of(fieldTermIds[id]);
+            for (int i = 0; i < termVectors[id].size(); i++) {
+                termFrequencies[termVectors[id].termId(i)] += termVectors[id].frequencyAt(i);
+            }
+        }
+
+        this.trie = buildTrie(dictionary);
+        this.spellChecker = new SpellChecking(dictionary, termFrequencies);
+        this.textIndex = buildTextIndex(fieldTermIds, searchProperties);
+        this.positionIndex = buildPositionIndex(fieldTermIds);
+        this.columns = new CardColumns(cards);
+    }
+
+    private static Trie buildTrie(TermDictionary dictionary) {
+        Trie trie = new Trie();
+        for (int termId = 0; termId < dictionary.size(); termId++) {
+            trie.insert(dictionary.term(termId));
+        }
+        return trie;
+    }
+
+    private static InvertedIndex buildTextIndex(int[][][] fieldTermIds, SearchProperties properties) {
+        float[] boosts = {
+                properties.getTitleBoost(), properties.getValuePropBoost(),
+                properties.getBenefitsBoost(), properties.getBankBoost()
+        };
+        InvertedIndex.Builder builder = new InvertedIndex.Builder(boosts, properties.getK1(), properties.getB());
+        for (int id = 0; id < fieldTermIds.length; id++) {
+            builder.addDocument(id, fieldTermIds[id]);
+        }
+        return builder.build();
+    }
+
+    private static PositionIndex buildPositionIndex(int[][][] fieldTermIds) {
+        PositionIndex.Builder builder = new PositionIndex.Builder();
+        for (int id = 0; id < fieldTermIds.length; id++) {
+            builder.addDocument(id, fieldTermIds[id]);
+        }
+        return builder.build();
+    }
+
+    int getBase() {
+        return base;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String getFingerprint() {
+        return fingerprint;
+    }
+
+    // =========================================
+    // Query Evaluation
+    // =========================================
+
+    /**
+     * Top results of one shard, in the order the whole query wants them.
+     *
+     * @param ids Catalog IDs of the results, best first
+     * @param keys Merge key of each result: lower sorts first, ties by catalog ID
+     * @param facets Facet counts over the shard's full result, or null
+     */
+    record Result(int[] ids, double[] keys, CardColumns.FacetCounts facets) {
+    }
+
+    /**
+     * Evaluates a query against this shard's cards.
+     *
+     * @param query The filters, search text and ordering
+     * @param k Maximum number of results to return
+     * @return The shard's first {@code k} results in query order
+     */
+    Result execute(CardQuery query, int k) {
+        return execute(query, null, k);
+    }
+
+    /**
+     * Like {@link #execute(CardQuery, int)}, only considering the given cards.
+     *
+     * @param candidateIds Local IDs of the cards to consider, or null for all
+     */
+    Result execute(CardQuery query, BitSet candidateIds, int k) {
+        BitSet matches = columns.filter(query);
+        if (candidateIds != null) {
+            matches.and(candidateIds);
+        }
+
+        List<WandSearcher.QueryTerm> terms = query.hasSearch() ? parseSearch(query.getSearch(), matches) : null;
+        boolean ranked = terms != null && query.getSort() == null;
+        if (terms != null && (!ranked || query.isFacets())) {
+            // Sorting and facets cover every card matching a term, not only the top K
+            matches.and(matchingAnyTerm(terms));
+        }
+
+        int[] ids;
+        double[] keys;
+        if (ranked) {
+            List<WandSearcher.ScoredDoc> top = WandSearcher.search(terms, matches::get, k);
+            ids = new int[top.size()];
+            keys = new double[top.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = base + top.get(i).docId();
+                keys[i] = -top.get(i).score() + 0.0;
+            }
+        } else if (query.getSort() != null) {
+            CardSort sort = query.getSort();
+            ids = columns.sorted(sort, matches, k);
+            keys = new double[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                double value = columns.value(sort.key(), ids[i]);
+                keys[i] = (sort.descending() ? -value : value) + 0.0; // NaN stays NaN and sorts last
+                ids[i] += base;
+            }
+        } else {
+            ids = new int[Math.min(matches.cardinality(), k)];
+            keys = new double[ids.length]; // Catalog order: all keys tie, catalog ID decides
+            int count = 0;
+            for (int id = matches.nextSetBit(0); id >= 0 && count < ids.length; id = matches.nextSetBit(id + 1)) {
+                ids[count++] = base + id;
+            }
+        }
+        return new Result(ids, keys, query.isFacets() ? columns.facets(matches) : null);
+    }
+
+    /**
+     * Ranks the given local candidates by BM25 relevance to the query.
+     *
+     * @return Catalog IDs with their scores, best first
+     */
+    List<WandSearcher.ScoredDoc> rank(String query, BitSet candidateIds, int k) {
+        List<WandSearcher.ScoredDoc> top = WandSearcher.search(parseSearch(query, candidateIds), candidateIds::get, k);
+        List<WandSearcher.ScoredDoc> ranked = new ArrayList<>(top.size());
+        for (WandSearcher.ScoredDoc doc : top) {
+            ranked.add(new WandSearcher.ScoredDoc(base + doc.docId(), doc.score()));
+        }
+        return ranked;
+    }
+
+    /**
+     * Turns search text into weighted query terms.
+     *
+     * Quoted parts of the query are phrases every result must contain, e.g.
+     * {@code "cash back"}; {@code "travel insurance"~3} also accepts up to
+     * three other words in between. Cards lacking a phrase are removed from
+     * the candidates. All query words, quoted or not, count towards the BM25
+     * score.
+     *
+     * @param query Search text
+     * @param candidateIds Cards to consider; narrowed by the phrases
+     * @return Query terms present in the index
+     */
+    private List<WandSearcher.QueryTerm> parseSearch(String query, BitSet candidateIds) {
+        // Phrases narrow the candidates; only they decode token positions
+        List<int[]> termIds = new ArrayList<>();
+        Matcher phrases = PHRASE_PATTERN.matcher(query);
+        StringBuilder words = new StringBuilder();
+        int end = 0;
+        while (phrases.find()) {
+            words.append(query, end, phrases.start()).append(' ');
+            end = phrases.end();
+            int[] phrase = QUERY_ANALYZER.get().lookup(phrases.group(1), dictionary);
+            if (phrase.length == 0) continue;
+            int slop = phrases.group(2) == null ? 0 : parseSlop(phrases.group(2));
+            candidateIds.and(positionIndex.match(textIndex, phrase, slop, candidateIds::get));
+            termIds.add(phrase);
+        }
+        words.append(query, end, query.length());
+        termIds.add(queryTermIds(words.toString()));
+
+        // Repeated query terms weigh proportionally more
+        TermVector queryVector = TermVector.of(termIds.stream()
+                .map(ids -> Arrays.stream(ids).filter(id -> id >= 0).toArray())
+                .toArray(int[][]::new));
+        List<WandSearcher.QueryTerm> terms = new ArrayList<>(queryVector.size());
+        for (int i = 0; i < queryVector.size(); i++) {
+            InvertedIndex.Postings postings = textIndex.getPostings(queryVector.termId(i));
+            if (postings != null) {
+                terms.add(new WandSearcher.QueryTerm(postings, queryVector.frequencyAt(i)));
+            }
+        }
+        return terms;
+    }
+
+    private static int parseSlop(String slop) {
+        return slop.length() > 3 ? PositionIndex.MAX_SLOP : Math.min(Integer.parseInt(slop), PositionIndex.MAX_SLOP);
+    }
+
+    /**
+     * Analyzes query text against this shard's dictionary.
+     *
+     * @return Term IDs of the query tokens, skipping terms the shard never uses
+     */
+    private int[] queryTermIds(String text) {
+        int[] ids = QUERY_ANALYZER.get().lookup(text, dictionary);
+        int count = 0;
+        for (int id : ids) {
+            if (id >= 0) ids[count++] = id;
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    // Union of the postings of the query terms
+    private static BitSet matchingAnyTerm(List<WandSearcher.QueryTerm> terms) {
+        BitSet ids = new BitSet();
+        for (WandSearcher.QueryTerm term : terms) {
+            InvertedIndex.Cursor cursor = term.postings().cursor();
+            for (int doc = cursor.docId(); doc != InvertedIndex.NO_MORE_DOCS; doc = cursor.next()) {
+                ids.set(doc);
+            }
+        }
+        return ids;
+    }
+
+    // =========================================
+    // Term Statistics
+    // =========================================
+
+    /**
+     * @param term An analyzed term
+     * @return Number of the shard's cards containing the term
+     */
+    int getDocFrequency(String term) {
+        return textIndex.getDocFrequency(dictionary.lookup(term));
+    }
+
+    /**
+     * @param localId A card of this shard
+     * @return The card's term vector, for looking up terms by ID
+     */
+    TermVector getTermVector(int localId) {
+        return termVectors[localId];
+    }
+
+    /**
+     * @param term An analyzed term
+     * @return The term's ID in this shard, or -1 if no card uses it
+     */
+    int getTermId(String term) {
+        return dictionary.lookup(term);
+    }
+
+    /**
+     * @return Number of distinct terms in the shard's cards
+     */
+    int getTermCount() {
+        return dictionary.size();
+    }
+
+    /**
+     * @param termId A term ID of this shard
+     * @return The term
+     */
+    String getTerm(int termId) {
+        return dictionary.term(termId);
+    }
+
+    List<String> getAutocompleteSuggestions(String prefix) {
+        return trie.searchPrefix(prefix);
+    }
+
+    List<String> getAutocompleteSuggestions(String prefix, int limit) {
+        return trie.searchPrefix(prefix, limit);
+    }
+
+    List<String> getSpellingSuggestions(String word, int maxSuggestions) {
+        return spellChecker.getSuggestions(word, 2, maxSuggestions);
+    }
+
+    int getWordFrequency(String word) {
+        return spellChecker.getWordFrequency(word);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.service;
+
+/**
+ * Requested ordering of a card listing, parsed from {@code field,direction}
+ * such as {@code annualFee,desc}. The direction defaults to ascending.
+ *
+ * @param key The attribute to sort by
+ * @param descending Whether the largest values come first
+ */
+public record CardSort(Key key, boolean descending) {
+
+    /**
+     * Sortable card attributes.
+     */
+    public enum Key {
+        ANNUAL_FEE("annualFee"),
+        PURCHASE_RATE("purchaseRate"),
+        CASH_RATE("cashRate");
+
+        private final String paramName;
+
+        Key(String paramName) {
+            this.paramName = paramName;
+        }
+    }
+
+    /**
+     * @param value Sort parameter, e.g. {@code purchaseRate,asc}
+     * @return The parsed sort, or null if the value is null or blank
+     * @throws IllegalArgumentException if the field or direction is unknown
+     */
+    public static CardSort parse(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        String[] parts = value.split(",", -1);
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("sort must be field[,asc|desc]");
+        }
+
+        Key key = null;
+        for (Key candidate : Key.values()) {
+            if (candidate.paramName.equalsIgnoreCase(parts[0].trim())) {
+                key = candidate;
+            }
+        }
+        if (key == null) {
+            throw new IllegalArgumentException("Unknown sort field: " + parts[0].trim());
+        }
+
+        String direction = parts.length == 2 ? parts[1].trim().toLowerCase() : "asc";
+        if (!direction.equals("asc") && !direction.equals("desc")) {
+            throw new IllegalArgumentException("Unknown sort direction: " + parts[1].trim());
+        }
+        return new CardSort(key, direction.equals("desc"));
+    }
+}
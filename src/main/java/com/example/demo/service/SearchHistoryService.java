@@ -40,6 +40,20 @@ public class SearchHistoryService {
         searchCounts.merge(normalizedTerm, 1, Integer::sum);
     }
 
+    /**
+     * Takes back one recorded search of a term, e.g. one made by the
+     * application itself rather than by a user.
+     * Removes the term once its count reaches zero.
+     * 
+     * @param term The search term to forget
+     */
+    public void forgetSearch(String term) {
+        if (term == null || term.trim().isEmpty()) return;
+
+        String normalizedTerm = term.toLowerCase().trim();
+        searchCounts.computeIfPresent(normalizedTerm, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
     /**
      * Retrieves the most popular search terms.
      * 
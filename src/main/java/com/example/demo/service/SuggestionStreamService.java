@@ -0,0 +1,175 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ExecutorFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes autocomplete and spelling suggestions over server-sent events.
+ * A client opens one long-lived event stream and then posts each prefix as
+ * the user types. Prefixes are coalesced per session: only the newest
+ * prefix received within the coalescing window is looked up, and a result
+ * is dropped if an even newer prefix arrived while it was being computed.
+ */
+@Service
+public class SuggestionStreamService {
+
+    // Completions returned per prefix
+    private static final int MAX_COMPLETIONS = 10;
+
+    private final CreditCardService creditCardService;
+    private final ThreadPoolTaskScheduler scheduler;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    private final Duration coalesceWindow;
+    private final Duration sessionTimeout;
+    private final int maxSessions;
+
+    public SuggestionStreamService(CreditCardService creditCardService,
+                                   ExecutorFactory executorFactory,
+                                   @Value("${creditcards.suggest.coalesce-window:30ms}") Duration coalesceWindow,
+                                   @Value("${creditcards.suggest.heartbeat:15s}") Duration heartbeat,
+                                   @Value("${creditcards.suggest.session-timeout:30m}") Duration sessionTimeout,
+                                   @Value("${creditcards.suggest.max-sessions:10000}") int maxSessions) {
+        this.creditCardService = creditCardService;
+        this.coalesceWindow = coalesceWindow;
+        this.sessionTimeout = sessionTimeout;
+        this.maxSessions = maxSessions;
+        this.scheduler = executorFactory.createScheduler("suggest-", 2);
+        this.scheduler.scheduleAtFixedRate(this::sendHeartbeats, heartbeat);
+    }
+
+    // =========================================
+    // Public API Methods
+    // =========================================
+
+    /**
+     * Opens a new suggestion stream. The first event ("session") carries the
+     * session ID that prefix updates must be posted to.
+     *
+     * @return The emitter for the event stream
+     * @throws IllegalStateException if the session limit is reached
+     */
+    public SseEmitter openSession() throws IOException {
+        if (sessions.size() >= maxSessions) {
+            throw new IllegalStateException("Too many open suggestion streams");
+        }
+
+        String id = UUID.randomUUID().toString();
+        SseEmitter emitter = new SseEmitter(sessionTimeout.toMillis());
+        Session session = new Session(id, emitter);
+        sessions.put(id, session);
+
+        emitter.onCompletion(() -> sessions.remove(id));
+        emitter.onTimeout(() -> sessions.remove(id));
+        emitter.onError(error -> sessions.remove(id));
+
+        emitter.send(SseEmitter.event().name("session").data(id));
+        return emitter;
+    }
+
+    /**
+     * Queues a prefix update for a session. Earlier prefixes that have not
+     * been processed yet are superseded.
+     *
+     * @param sessionId Session ID from the "session" event
+     * @param prefix The text typed so far
+     * @param seq Client sequence number, echoed back so the client can ignore stale results
+     * @return false if the session does not exist (closed or expired)
+     */
+    public boolean submitPrefix(String sessionId, String prefix, long seq) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            return false;
+        }
+
+        session.pending.set(new PrefixUpdate(prefix, seq));
+        if (session.scheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> process(session), scheduler.getClock().instant().plus(coalesceWindow));
+        }
+        return true;
+    }
+
+    // =========================================
+    // Processing
+    // =========================================
+
+    private void process(Session session) {
+        // Clear the flag before taking the update, so a prefix arriving while
+        // this runs schedules a fresh pass instead of being lost
+        session.scheduled.set(false);
+        PrefixUpdate update = session.pending.getAndSet(null);
+        if (update == null) {
+            return;
+        }
+
+        CardIndex index = creditCardService.snapshot();
+        String prefix = update.prefix.trim().toLowerCase();
+        List<String> completions = prefix.isEmpty()
+                ? List.of()
+                : index.getAutocompleteSuggestions(prefix, MAX_COMPLETIONS);
+        // The spell checker scans the vocabulary, so only consult it for likely typos
+        List<String> corrections = prefix.isEmpty() || !completions.isEmpty()
+                ? List.of()
+                : index.getSpellingSuggestions(prefix);
+
+        if (session.pending.get() != null) {
+            return; // A newer prefix is already waiting; this result is stale
+        }
+
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("seq", update.seq);
+        event.put("prefix", update.prefix);
+        event.put("completions", completions);
+        event.put("corrections", corrections);
+        try {
+            session.emitter.send(SseEmitter.event().name("suggestions").data(event, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            close(session);
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (Session session : sessions.values()) {
+            try {
+                session.emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+                close(session);
+            }
+        }
+    }
+
+    private void close(Session session) {
+        sessions.remove(session.id);
+        session.emitter.complete();
+    }
+
+    // =========================================
+    // Session State
+    // =========================================
+
+    private static final class Session {
+        final String id;
+        final SseEmitter emitter;
+        final AtomicReference<PrefixUpdate> pending = new AtomicReference<>(); // Newest unprocessed prefix
+        final AtomicBoolean scheduled = new AtomicBoolean();                  // Whether a pass is queued
+
+        Session(String id, SseEmitter emitter) {
+            this.id = id;
+            this.emitter = emitter;
+        }
+    }
+
+    private record PrefixUpdate(String prefix, long seq) {
+    }
+}
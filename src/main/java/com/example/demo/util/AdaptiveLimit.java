@@ -0,0 +1,110 @@
+package com.example.demo.util;
+
+/**
+ * Concurrency limit that adapts to observed latency, following the gradient
+ * approach of TCP Vegas style congestion control.
+ *
+ * Two moving averages of request latency are kept: a short one that follows
+ * current conditions and a long one that serves as the no-load baseline.
+ * While the short average stays near the baseline the limit grows by about
+ * its square root per sample, probing for more capacity; once requests start
+ * queueing for CPU or locks the short average rises above the baseline and
+ * the limit shrinks in proportion, at most halving per sample. The limit only
+ * grows while at least half of it is in use, so an idle endpoint does not
+ * drift up to the maximum.
+ *
+ * All methods are synchronized; they do a few arithmetic operations each.
+ */
+public class AdaptiveLimit {
+
+    private static final double SHORT_WINDOW = 10;     // Samples in the short latency average
+    private static final double LONG_WINDOW = 600;     // Samples in the baseline average
+    private static final double TOLERANCE = 1.5;       // Latency increase tolerated before shrinking
+    private static final double SMOOTHING = 0.2;       // Weight of each new limit estimate
+
+    // =========================================
+    // Fields
+    // =========================================
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private int inFlight;
+    private double shortRtt;   // Nanoseconds; 0 until the first sample
+    private double longRtt;
+
+    /**
+     * @param initialLimit Limit to start with
+     * @param minLimit Smallest limit, so some requests are always admitted
+     * @param maxLimit Largest limit
+     */
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    /**
+     * Admits a request if fewer than the limit are in flight. Every admitted
+     * request must be followed by exactly one {@link #release(long)}.
+     *
+     * @return Whether the request was admitted
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Ends an admitted request and updates the limit from its latency.
+     *
+     * @param rttNanos How long the request took
+     */
+    public synchronized void release(long rttNanos) {
+        int active = inFlight--;
+        if (shortRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt += (rttNanos - shortRtt) / SHORT_WINDOW;
+        longRtt += (rttNanos - longRtt) / LONG_WINDOW;
+
+        // Latency fell well below the baseline, e.g. once an overload or the
+        // interpreted startup phase has passed: pull the baseline down faster
+        // than the long average would, so queueing is measured against current
+        // latency rather than an inflated baseline. A lasting latency increase
+        // needs no such help: the limit shrinks while the long average catches
+        // up with it.
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (active < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double estimate = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + estimate * SMOOTHING));
+    }
+
+    /**
+     * @return Current limit on concurrent requests
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return Admitted requests not yet released
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
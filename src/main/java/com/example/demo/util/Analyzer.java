@@ -0,0 +1,106 @@
+package com.example.demo.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The single tokenizer shared by every index over card text.
+ * A token is a maximal run of letters or digits, lowercased; everything else
+ * separates tokens. Tokens are produced into one reusable character buffer
+ * and can be interned straight into a {@link TermDictionary}, so analyzing
+ * text allocates nothing per token once the terms are known.
+ *
+ * An Analyzer instance keeps its buffers between calls and is not
+ * thread-safe; use one instance per thread.
+ */
+public final class Analyzer {
+
+    /**
+     * Receives tokens from {@link #analyze(CharSequence, TokenSink)}.
+     * The buffer is reused for the next token, so sinks must copy what they keep.
+     */
+    @FunctionalInterface
+    public interface TokenSink {
+        void accept(char[] buffer, int length);
+    }
+
+    private char[] buffer = new char[32];    // Current token
+    private int[] ids = new int[64];         // Term IDs of the text being analyzed
+    private int idCount;
+
+    // =========================================
+    // Public API Methods
+    // =========================================
+
+    /**
+     * Splits text into tokens and passes each to the sink.
+     *
+     * @param text The text to analyze (null is treated as empty)
+     * @param sink Receives each token
+     */
+    public void analyze(CharSequence text, TokenSink sink) {
+        if (text == null) {
+            return;
+        }
+        int length = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, length * 2);
+                }
+                buffer[length++] = Character.toLowerCase(c);
+            } else if (length > 0) {
+                sink.accept(buffer, length);
+                length = 0;
+            }
+        }
+        if (length > 0) {
+            sink.accept(buffer, length);
+        }
+    }
+
+    /**
+     * @param text The text to analyze
+     * @return The tokens of the text as strings
+     */
+    public List<String> tokenize(CharSequence text) {
+        List<String> tokens = new ArrayList<>();
+        analyze(text, (chars, length) -> tokens.add(new String(chars, 0, length)));
+        return tokens;
+    }
+
+    /**
+     * Interns every token of the text, adding new terms to the dictionary.
+     *
+     * @param text The text to analyze
+     * @param dictionary Dictionary to intern terms into
+     * @return Term IDs in token order (the index of an ID is its position)
+     */
+    public int[] intern(CharSequence text, TermDictionary dictionary) {
+        idCount = 0;
+        analyze(text, (chars, length) -> appendId(dictionary.add(chars, length)));
+        return Arrays.copyOf(ids, idCount);
+    }
+
+    /**
+     * Looks up every token of the text without modifying the dictionary.
+     *
+     * @param text The text to analyze
+     * @param dictionary Dictionary to look terms up in
+     * @return Term IDs in token order, with -1 for unknown tokens
+     */
+    public int[] lookup(CharSequence text, TermDictionary dictionary) {
+        idCount = 0;
+        analyze(text, (chars, length) -> appendId(dictionary.lookup(chars, length)));
+        return Arrays.copyOf(ids, idCount);
+    }
+
+    private void appendId(int id) {
+        if (idCount == ids.length) {
+            ids = Arrays.copyOf(ids, idCount * 2);
+        }
+        ids[idCount++] = id;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer with variable-byte integer encoding, used to build
+ * the compressed index structures.
+ */
+final class ByteWriter {
+    private byte[] bytes;
+    private int size;
+
+    ByteWriter() {
+        this(1024);
+    }
+
+    ByteWriter(int capacity) {
+        this.bytes = new byte[Math.max(capacity, 1)];
+    }
+
+    void writeByte(int value) {
+        if (size == bytes.length) {
+            bytes = Arrays.copyOf(bytes, size * 2);
+        }
+        bytes[size++] = (byte) value;
+    }
+
+    // 7 bits per byte, high bit set on every byte but the last
+    void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte(value);
+    }
+
+    void writeBytes(ByteWriter other) {
+        if (size + other.size > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + other.size));
+        }
+        System.arraycopy(other.bytes, 0, bytes, size, other.size);
+        size += other.size;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+}
@@ -47,7 +47,9 @@ public class ExcelReader {
 
             while (rowIterator.hasNext()) {
                 Row row = rowIterator.next();
-                creditCards.add(createCreditCardFromRow(row));
+                CreditCard card = createCreditCardFromRow(row);
+                card.setId(creditCards.size()); // IDs follow row order
+                creditCards.add(card);
             }
 
         } catch (IOException e) {
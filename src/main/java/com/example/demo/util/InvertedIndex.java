@@ -0,0 +1,498 @@
+package com.example.demo.util;
+
+import java.util.*;
+
+/**
+ * Inverted index over multi-field documents with BM25 scoring.
+ * Each field is scored with BM25 against its own length statistics and
+ * weighted by a per-field boost. Every term stores the largest score
+ * contribution ("impact") any of its postings can make. That maximum is the
+ * upper bound WAND / MaxScore evaluation uses to skip documents that cannot
+ * make it into the top results.
+ *
+ * Postings are stored compressed in blocks of {@value #BLOCK_SIZE} documents:
+ * doc IDs as variable-byte deltas, followed by each document's per-field term
+ * frequencies. A skip table keeps the last doc ID and the maximum impact of
+ * every block, so cursors jump over blocks without decoding them, decode term
+ * frequencies only when a document is actually scored, and let block-max WAND
+ * skip whole blocks that cannot beat the current threshold.
+ *
+ * Terms are identified by their ID in the catalog's {@link TermDictionary}.
+ * Document IDs are expected to be small and dense (e.g. catalog positions),
+ * since field lengths are kept in arrays indexed by doc ID.
+ */
+public class InvertedIndex {
+
+    /** Sentinel document ID returned by exhausted cursors. */
+    public static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    /** Number of postings per compressed block. */
+    public static final int BLOCK_SIZE = 128;
+
+    // =========================================
+    // Fields
+    // =========================================
+
+    private final Postings[] postings; // Term ID -> postings list (null if unused)
+    private final int docCount;        // Number of indexed documents
+    private final byte[] data;         // Encoded blocks of every postings list
+
+    // Scoring parameters
+    private final float[] boosts;
+    private final float k1;
+    private final float[][] norms;     // [field][doc ID] -> BM25 length normalization
+
+    private InvertedIndex(Builder builder, int docCount, float[][] norms) {
+        this.postings = new Postings[builder.terms.length];
+        this.docCount = docCount;
+        this.boosts = builder.boosts;
+        this.k1 = builder.k1;
+        this.norms = norms;
+        this.data = builder.encode(this);
+    }
+
+    // =========================================
+    // Public API Methods
+    // =========================================
+
+    /**
+     * @param termId A term ID, or -1 for an unknown term
+     * @return The postings for the term, or null if no document contains it
+     */
+    public Postings getPostings(int termId) {
+        return termId >= 0 && termId < postings.length ? postings[termId] : null;
+    }
+
+    /**
+     * @param termId A term ID, or -1 for an unknown term
+     * @return Number of documents containing the term in any field
+     */
+    public int getDocFrequency(int termId) {
+        Postings list = getPostings(termId);
+        return list == null ? 0 : list.size();
+    }
+
+    public int getDocCount() {
+        return docCount;
+    }
+
+    /**
+     * @return Size in bytes of the encoded postings data
+     */
+    public int getEncodedSize() {
+        return data.length;
+    }
+
+    // =========================================
+    // Scoring
+    // =========================================
+
+    /**
+     * BM25 score contribution of one term to one document. Used both when
+     * computing the skip table maxima and when decoding, so the bounds are
+     * exact maxima of the values cursors return.
+     *
+     * @param idf Inverse document frequency of the term
+     * @param docId The document
+     * @param tfs Term frequency in each field
+     */
+    private float impact(float idf, int docId, int[] tfs) {
+        double score = 0;
+        for (int field = 0; field < boosts.length; field++) {
+            int tf = tfs[field];
+            if (tf == 0) continue;
+            score += boosts[field] * tf * (k1 + 1) / (tf + norms[field][docId]);
+        }
+        return (float) (idf * score);
+    }
+
+    // =========================================
+    // Postings
+    // =========================================
+
+    /**
+     * Documents containing one term, in increasing document ID order,
+     * with the term's BM25 score contribution for each document.
+     */
+    public static final class Postings {
+        private final InvertedIndex index;
+        private final float idf;
+        private final int size;
+        private final int[] blockLastDocs;     // Skip table: last doc ID of each block
+        private final float[] blockMaxImpacts; // Skip table: max impact within each block
+        private final int[] blockOffsets;      // Skip table: start of each block in the data
+        private final float maxImpact;
+
+        private Postings(InvertedIndex index, float idf, int size,
+                         int[] blockLastDocs, float[] blockMaxImpacts, int[] blockOffsets) {
+            this.index = index;
+            this.idf = idf;
+            this.size = size;
+            this.blockLastDocs = blockLastDocs;
+            this.blockMaxImpacts = blockMaxImpacts;
+            this.blockOffsets = blockOffsets;
+            float max = 0f;
+            for (float impact : blockMaxImpacts) {
+                max = Math.max(max, impact);
+            }
+            this.maxImpact = max;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return Upper bound of this term's score contribution to any document
+         */
+        public float getMaxImpact() {
+            return maxImpact;
+        }
+
+        public Cursor cursor() {
+            return new Cursor(this);
+        }
+
+        private int blockCount() {
+            return blockLastDocs.length;
+        }
+
+        private int blockLength(int block) {
+            return block == blockLastDocs.length - 1 ? size - block * BLOCK_SIZE : BLOCK_SIZE;
+        }
+    }
+
+    /**
+     * Forward-only iterator over a postings list that decodes one block at a time.
+     */
+    public static final class Cursor {
+        private final Postings postings;
+        private final int[] docs;
+        private final float[] impacts;
+        private final int[] tfs;
+        private int block;               // Decoded block
+        private int blockLength;
+        private int position;            // Index within the decoded block
+        private int freqOffset;          // Start of the block's frequencies in the data
+        private boolean impactsDecoded;
+        private int shallowBlock;        // Block examined by shallowAdvance
+
+        private Cursor(Postings postings) {
+            this.postings = postings;
+            int capacity = Math.min(postings.size, BLOCK_SIZE);
+            this.docs = new int[capacity];
+            this.impacts = new float[capacity];
+            this.tfs = new int[postings.index.boosts.length];
+            loadBlock(0);
+        }
+
+        /**
+         * @return Current document ID, or {@link #NO_MORE_DOCS} when exhausted
+         */
+        public int docId() {
+            return block < postings.blockCount() ? docs[position] : NO_MORE_DOCS;
+        }
+
+        /**
+         * @return Score contribution of the term to the current document
+         */
+        public float impact() {
+            if (!impactsDecoded) {
+                decodeImpacts();
+            }
+            return impacts[position];
+        }
+
+        public int next() {
+            if (++position == blockLength) {
+                loadBlock(block + 1);
+            }
+            return docId();
+        }
+
+        /**
+         * Moves to the first document whose ID is at least {@code target}.
+         * Blocks that end before the target are skipped using the skip table.
+         *
+         * @param target The document ID to advance to
+         * @return The new current document ID
+         */
+        public int advance(int target) {
+            if (docId() >= target) {
+                return docId();
+            }
+            int targetBlock = findBlock(block, target);
+            if (targetBlock != block) {
+                loadBlock(targetBlock);
+                if (block >= postings.blockCount()) {
+                    return NO_MORE_DOCS;
+                }
+            }
+            int low = position;
+            int high = blockLength - 1; // docs[high] >= target by the skip table
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (docs[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            position = low;
+            return docId();
+        }
+
+        /**
+         * Locates the block that would contain {@code target} without decoding it.
+         *
+         * @param target A document ID not before the current one
+         * @return The last document ID of that block, or {@link #NO_MORE_DOCS}
+         *         if no block reaches the target
+         */
+        public int shallowAdvance(int target) {
+            shallowBlock = findBlock(block, target);
+            return shallowBlock < postings.blockCount() ? postings.blockLastDocs[shallowBlock] : NO_MORE_DOCS;
+        }
+
+        /**
+         * @return Max impact of the block found by the last {@link #shallowAdvance(int)}
+         */
+        public float getBlockMaxImpact() {
+            return shallowBlock < postings.blockCount() ? postings.blockMaxImpacts[shallowBlock] : 0f;
+        }
+
+        // First block at or after 'from' whose last document is >= target
+        private int findBlock(int from, int target) {
+            int[] lastDocs = postings.blockLastDocs;
+            int low = from;
+            int high = lastDocs.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (lastDocs[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void loadBlock(int target) {
+            block = target;
+            position = 0;
+            if (block >= postings.blockCount()) {
+                return;
+            }
+            byte[] data = postings.index.data;
+            int offset = postings.blockOffsets[block];
+            int doc = block == 0 ? -1 : postings.blockLastDocs[block - 1];
+            blockLength = postings.blockLength(block);
+            for (int i = 0; i < blockLength; i++) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[offset++];
+                    delta |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += delta;
+                docs[i] = doc;
+            }
+            freqOffset = offset;
+            impactsDecoded = false;
+        }
+
+        private void decodeImpacts() {
+            InvertedIndex index = postings.index;
+            byte[] data = index.data;
+            int offset = freqOffset;
+            for (int i = 0; i < blockLength; i++) {
+                int fieldMask = data[offset++] & 0xFF;
+                for (int field = 0; field < tfs.length; field++) {
+                    int tf = 0;
+                    if ((fieldMask & (1 << field)) != 0) {
+                        int shift = 0;
+                        byte b;
+                        do {
+                            b = data[offset++];
+                            tf |= (b & 0x7F) << shift;
+                            shift += 7;
+                        } while (b < 0);
+                    }
+                    tfs[field] = tf;
+                }
+                impacts[i] = index.impact(postings.idf, docs[i], tfs);
+            }
+            impactsDecoded = true;
+        }
+    }
+
+    // =========================================
+    // Index Construction
+    // =========================================
+
+    /**
+     * Accumulates documents and encodes the compressed postings when built.
+     * Documents must be added in increasing document ID order.
+     */
+    public static final class Builder {
+        private final float[] boosts;
+        private final float k1;
+        private final float b;
+
+        private TermBuilder[] terms = new TermBuilder[256]; // By term ID
+        private final List<int[]> fieldLengths = new ArrayList<>(); // Per document, per field
+        private int[] docIds = new int[256];                         // Per document
+        private int lastDocId = -1;
+
+        /**
+         * @param boosts Weight of each field's BM25 score (at most 8 fields)
+         * @param k1 BM25 term-frequency saturation parameter
+         * @param b BM25 length normalization parameter
+         */
+        public Builder(float[] boosts, float k1, float b) {
+            if (boosts.length > 8) {
+                throw new IllegalArgumentException("At most 8 fields are supported");
+            }
+            this.boosts = boosts.clone();
+            this.k1 = k1;
+            this.b = b;
+        }
+
+        /**
+         * Adds one document.
+         *
+         * @param docId Document ID, greater than any previously added
+         * @param fieldTermIds Term IDs of each field's tokens, in the same order as the boosts
+         */
+        public void addDocument(int docId, int[][] fieldTermIds) {
+            if (docId <= lastDocId) {
+                throw new IllegalArgumentException("Documents must be added in increasing ID order");
+            }
+            lastDocId = docId;
+
+            int[] lengths = new int[boosts.length];
+            for (int field = 0; field < boosts.length; field++) {
+                int[] tokens = fieldTermIds[field];
+                lengths[field] = tokens.length;
+                for (int termId : tokens) {
+                    if (termId >= terms.length) {
+                        terms = Arrays.copyOf(terms, Math.max(terms.length * 2, termId + 1));
+                    }
+                    if (terms[termId] == null) {
+                        terms[termId] = new TermBuilder(boosts.length);
+                    }
+                    terms[termId].add(docId, field);
+                }
+            }
+
+            int ordinal = fieldLengths.size();
+            fieldLengths.add(lengths);
+            if (ordinal == docIds.length) {
+                docIds = Arrays.copyOf(docIds, ordinal * 2);
+            }
+            docIds[ordinal] = docId;
+        }
+
+        public InvertedIndex build() {
+            int docCount = fieldLengths.size();
+            double[] averageLengths = new double[boosts.length];
+            for (int[] lengths : fieldLengths) {
+                for (int field = 0; field < boosts.length; field++) {
+                    averageLengths[field] += lengths[field];
+                }
+            }
+            for (int field = 0; field < boosts.length; field++) {
+                averageLengths[field] = docCount == 0 ? 0 : Math.max(averageLengths[field] / docCount, 1e-9);
+            }
+
+            float[][] norms = new float[boosts.length][lastDocId + 1];
+            for (int ordinal = 0; ordinal < docCount; ordinal++) {
+                int[] lengths = fieldLengths.get(ordinal);
+                for (int field = 0; field < boosts.length; field++) {
+                    norms[field][docIds[ordinal]] =
+                            (float) (k1 * (1 - b + b * lengths[field] / averageLengths[field]));
+                }
+            }
+            return new InvertedIndex(this, docCount, norms);
+        }
+
+        /**
+         * Encodes every term's postings into one byte array and registers the
+         * resulting postings lists with the index.
+         */
+        private byte[] encode(InvertedIndex index) {
+            int docCount = fieldLengths.size();
+            ByteWriter out = new ByteWriter();
+            int[] tfs = new int[boosts.length];
+
+            for (int termId = 0; termId < terms.length; termId++) {
+                TermBuilder term = terms[termId];
+                if (term == null) continue;
+                int df = term.size;
+                float idf = (float) Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+
+                int blockCount = (df + BLOCK_SIZE - 1) / BLOCK_SIZE;
+                int[] blockLastDocs = new int[blockCount];
+                float[] blockMaxImpacts = new float[blockCount];
+                int[] blockOffsets = new int[blockCount];
+                int previousDoc = -1;
+                for (int block = 0; block < blockCount; block++) {
+                    int start = block * BLOCK_SIZE;
+                    int end = Math.min(start + BLOCK_SIZE, df);
+                    blockOffsets[block] = out.size();
+                    for (int i = start; i < end; i++) {
+                        out.writeVarInt(term.docIds[i] - previousDoc);
+                        previousDoc = term.docIds[i];
+                    }
+
+                    float maxImpact = 0f;
+                    for (int i = start; i < end; i++) {
+                        int fieldMask = 0;
+                        for (int field = 0; field < boosts.length; field++) {
+                            tfs[field] = term.frequencies[field][i];
+                            if (tfs[field] > 0) fieldMask |= 1 << field;
+                        }
+                        out.writeByte(fieldMask);
+                        for (int field = 0; field < boosts.length; field++) {
+                            if (tfs[field] > 0) out.writeVarInt(tfs[field]);
+                        }
+                        maxImpact = Math.max(maxImpact, index.impact(idf, term.docIds[i], tfs));
+                    }
+                    blockLastDocs[block] = previousDoc;
+                    blockMaxImpacts[block] = maxImpact;
+                }
+                index.postings[termId] = new Postings(index, idf, df, blockLastDocs, blockMaxImpacts, blockOffsets);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Growable per-term postings used while building.
+     */
+    private static final class TermBuilder {
+        int[] docIds = new int[4];
+        int[][] frequencies;            // [field][posting] -> term frequency
+        int size;
+
+        TermBuilder(int fieldCount) {
+            frequencies = new int[fieldCount][4];
+        }
+
+        void add(int docId, int field) {
+            if (size == 0 || docIds[size - 1] != docId) {
+                if (size == docIds.length) {
+                    docIds = Arrays.copyOf(docIds, size * 2);
+                    for (int f = 0; f < frequencies.length; f++) {
+                        frequencies[f] = Arrays.copyOf(frequencies[f], size * 2);
+                    }
+                }
+                docIds[size] = docId;
+                size++;
+            }
+            frequencies[field][size - 1]++;
+        }
+    }
+}
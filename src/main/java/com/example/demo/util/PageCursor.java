@@ -0,0 +1,101 @@
+package com.example.demo.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Opaque pagination cursor for card listings.
+ * A cursor records the catalog version it was issued against, a hash of the
+ * query it belongs to and the position of the next result. Result ordering is
+ * deterministic for a given catalog version and query, so resuming from the
+ * position yields a stable page sequence even for ranked results; the query
+ * hash lets a cursor reused with other criteria be rejected instead of
+ * silently returning a page of a different result.
+ */
+public final class PageCursor {
+
+    // =========================================
+    // Fields
+    // =========================================
+
+    private final String catalogVersion; // Catalog version the cursor was issued for
+    private final String queryHash;      // Hash of the query's result key
+    private final int offset;            // Position of the first result on the next page
+
+    private PageCursor(String catalogVersion, String queryHash, int offset) {
+        this.catalogVersion = catalogVersion;
+        this.queryHash = queryHash;
+        this.offset = offset;
+    }
+
+    // =========================================
+    // Public API Methods
+    // =========================================
+
+    /**
+     * Encodes a cursor pointing at the given result position.
+     *
+     * @param catalogVersion Version of the catalog the results came from
+     * @param queryKey Normalized criteria of the query the results came from
+     * @param offset Position of the first result on the next page
+     * @return URL-safe cursor string
+     */
+    public static String encode(String catalogVersion, String queryKey, int offset) {
+        String raw = catalogVersion + ":" + hash(queryKey) + ":" + offset;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode(String, String, int)}.
+     *
+     * @param cursor The cursor string
+     * @return The decoded cursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", -1);
+            if (parts.length != 3 || parts[0].isEmpty() || parts[1].isEmpty()) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            int offset = Integer.parseInt(parts[2]);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new PageCursor(parts[0], parts[1], offset);
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException and invalid Base64 input
+            throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * @param queryKey Normalized criteria of the current request
+     * @return Whether the cursor was issued for a query with these criteria
+     */
+    public boolean isForQuery(String queryKey) {
+        return queryHash.equals(hash(queryKey));
+    }
+
+    public String getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    // First 8 bytes of the SHA-256 of the key, in hex
+    private static String hash(String queryKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(queryKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every JVM provides SHA-256
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.demo.util;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * Token positions of every term in every document, for phrase and proximity
+ * matching. Kept apart from the {@link InvertedIndex} postings so that plain
+ * term queries never read or decode positions.
+ *
+ * Positions of one term in one document are stored as variable-byte deltas,
+ * prefixed by the document delta and the entry's byte length so that cursors
+ * can step over documents without decoding them. Fields are laid out one
+ * after another with a gap larger than {@link #MAX_SLOP}, so a phrase never
+ * matches across two fields.
+ */
+public class PositionIndex {
+
+    /** Largest accepted proximity slop; larger values are clamped. */
+    public static final int MAX_SLOP = 64;
+
+    private static final int FIELD_GAP = MAX_SLOP + 1;
+
+    // =========================================
+    // Fields
+    // =========================================
+
+    private final byte[] data;          // Position entries of every term
+    private final int[] termOffsets;    // Term ID -> start of its entries (length = terms + 1)
+
+    private PositionIndex(byte[] data, int[] termOffsets) {
+        this.data = data;
+        this.termOffsets = termOffsets;
+    }
+
+    // =========================================
+    // Phrase Matching
+    // =========================================
+
+    /**
+     * Finds the documents containing the terms in order, with at most
+     * {@code slop} other tokens in between in total. A slop of 0 is an exact
+     * phrase. Candidates come from intersecting the terms' postings; positions
+     * are only decoded for documents that contain every term.
+     *
+     * @param index Postings of the same documents
+     * @param termIds Phrase term IDs in order; -1 (unknown term) matches nothing
+     * @param slop Allowed number of extra tokens within the phrase
+     * @param filter Documents to consider
+     * @return IDs of matching documents
+     */
+    public BitSet match(InvertedIndex index, int[] termIds, int slop, IntPredicate filter) {
+        BitSet matches = new BitSet();
+        int m = termIds.length;
+        InvertedIndex.Postings[] postings = new InvertedIndex.Postings[m];
+        for (int i = 0; i < m; i++) {
+            postings[i] = index.getPostings(termIds[i]);
+            if (postings[i] == null) {
+                return matches;
+            }
+        }
+        slop = Math.min(Math.max(slop, 0), MAX_SLOP);
+
+        // Intersect rarest first so the lead cursor drives the fewest advances
+        Integer[] order = new Integer[m];
+        for (int i = 0; i < m; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingInt(i -> postings[i].size()));
+        InvertedIndex.Cursor[] cursors = new InvertedIndex.Cursor[m];
+        Cursor[] positions = new Cursor[m];
+        for (int i = 0; i < m; i++) {
+            cursors[i] = postings[order[i]].cursor();
+            positions[order[i]] = new Cursor(termIds[order[i]]);
+        }
+
+        int doc = cursors[0].docId();
+        while (doc != InvertedIndex.NO_MORE_DOCS) {
+            int i = 1;
+            for (; i < m; i++) {
+                int other = cursors[i].advance(doc);
+                if (other != doc) {
+                    doc = cursors[0].advance(other);
+                    break;
+                }
+            }
+            if (i < m) continue;
+
+            if (filter.test(doc) && matchesAt(doc, positions, slop)) {
+                matches.set(doc);
+            }
+            doc = cursors[0].next();
+        }
+        return matches;
+    }
+
+    // Whether the document has the terms in order within the allowed slop
+    private static boolean matchesAt(int doc, Cursor[] positions, int slop) {
+        for (Cursor cursor : positions) {
+            cursor.advance(doc);
+        }
+        int m = positions.length;
+        int[] next = new int[m]; // Per term, first position not yet ruled out
+        Cursor first = positions[0];
+        for (int s = 0; s < first.count; s++) {
+            int start = first.positions[s];
+            int previous = start;
+            for (int i = 1; i < m; i++) {
+                Cursor term = positions[i];
+                while (next[i] < term.count && term.positions[next[i]] <= previous) {
+                    next[i]++;
+                }
+                if (next[i] == term.count) {
+                    return false; // No later start can complete the phrase either
+                }
+                previous = term.positions[next[i]];
+            }
+            if (previous - start - (m - 1) <= slop) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Forward-only reader of one term's position entries.
+     */
+    private final class Cursor {
+        private int offset;
+        private final int end;
+        private int doc = -1;
+        private int[] positions = new int[8];
+        private int count;
+
+        Cursor(int termId) {
+            this.offset = termOffsets[termId];
+            this.end = termOffsets[termId + 1];
+        }
+
+        // Decodes the positions of a document known to contain the term
+        void advance(int target) {
+            while (doc < target && offset < end) {
+                doc += readVarInt();
+                int length = readVarInt();
+                if (doc < target) {
+                    offset += length;
+                    continue;
+                }
+                int entryEnd = offset + length;
+                count = 0;
+                int position = 0;
+                while (offset < entryEnd) {
+                    position += readVarInt();
+                    if (count == positions.length) {
+                        positions = Arrays.copyOf(positions, count * 2);
+                    }
+                    positions[count++] = position;
+                }
+            }
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    // =========================================
+    // Index Construction
+    // =========================================
+
+    /**
+     * Accumulates documents and encodes their positions when built.
+     * Documents must be added in increasing document ID order.
+     */
+    public static final class Builder {
+        private ByteWriter[] terms = new ByteWriter[256]; // By term ID
+        private int[] lastDocs = new int[256];             // By term ID
+        private final ByteWriter entry = new ByteWriter();
+        private int lastDocId = -1;
+
+        /**
+         * Adds one document.
+         *
+         * @param docId Document ID, greater than any previously added
+         * @param fieldTermIds Term IDs of each field's tokens
+         */
+        public void addDocument(int docId, int[][] fieldTermIds) {
+            if (docId <= lastDocId) {
+                throw new IllegalArgumentException("Documents must be added in increasing ID order");
+            }
+            lastDocId = docId;
+
+            // Sort (term, position) pairs so each term's positions are contiguous
+            int tokenCount = 0;
+            for (int[] tokens : fieldTermIds) {
+                tokenCount += tokens.length;
+            }
+            long[] pairs = new long[tokenCount];
+            int count = 0;
+            int base = 0;
+            for (int[] tokens : fieldTermIds) {
+                for (int i = 0; i < tokens.length; i++) {
+                    pairs[count++] = (long) tokens[i] << 32 | (base + i);
+                }
+                base += tokens.length + FIELD_GAP;
+            }
+            Arrays.sort(pairs);
+
+            for (int i = 0; i < count; ) {
+                int termId = (int) (pairs[i] >>> 32);
+                entry.reset();
+                int previous = 0;
+                for (; i < count && (int) (pairs[i] >>> 32) == termId; i++) {
+                    int position = (int) pairs[i];
+                    entry.writeVarInt(position - previous);
+                    previous = position;
+                }
+
+                if (termId >= terms.length) {
+                    int capacity = Math.max(terms.length * 2, termId + 1);
+                    terms = Arrays.copyOf(terms, capacity);
+                    lastDocs = Arrays.copyOf(lastDocs, capacity);
+                }
+                if (terms[termId] == null) {
+                    terms[termId] = new ByteWriter(16);
+                    lastDocs[termId] = -1;
+                }
+                ByteWriter out = terms[termId];
+                out.writeVarInt(docId - lastDocs[termId]);
+                out.writeVarInt(entry.size());
+                out.writeBytes(entry);
+                lastDocs[termId] = docId;
+            }
+        }
+
+        public PositionIndex build() {
+            ByteWriter out = new ByteWriter();
+            int[] termOffsets = new int[terms.length + 1];
+            for (int termId = 0; termId < terms.length; termId++) {
+                termOffsets[termId] = out.size();
+                if (terms[termId] != null) {
+                    out.writeBytes(terms[termId]);
+                }
+            }
+            termOffsets[terms.length] = out.size();
+            return new PositionIndex(out.toByteArray(), termOffsets);
+        }
+    }
+}
@@ -1,15 +1,12 @@
 package com.example.demo.util;
 
-import com.example.demo.model.CreditCard;
 import java.util.*;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
 
 /**
  * Provides spell checking functionality for credit card search terms.
  * Features include:
- * - Building a vocabulary from credit card data
- * - Calculating word frequencies
+ * - Building a vocabulary from the catalog's term dictionary
+ * - Looking up word frequencies
  * - Finding spelling suggestions using Levenshtein distance
  * - Providing word frequency statistics
  */
@@ -18,22 +15,23 @@ public class SpellChecking {
     // Fields
     // =========================================
 
-    private final Set<String> vocabulary;      // Set of all known words
-    private final List<CreditCard> creditCards; // Reference to credit card data
-    private final Map<String, Integer> wordFrequency = new HashMap<>(); // Word occurrence counts
+    private final List<String> vocabulary;     // Known words, in term ID order
+    private final TermDictionary dictionary;   // Shared catalog term dictionary
+    private final int[] termFrequencies;       // Occurrence counts by term ID
 
     // =========================================
     // Constructor
     // =========================================
 
     /**
-     * Initializes spell checker with credit card data.
-     * Builds vocabulary and word frequency map during construction.
+     * Initializes spell checker from the catalog's analyzed text.
      * 
-     * @param creditCards List of credit cards to build vocabulary from
+     * @param dictionary Term dictionary built by the {@link Analyzer}
+     * @param termFrequencies Number of occurrences of each term, by term ID
      */
-    public SpellChecking(List<CreditCard> creditCards) {
-        this.creditCards = creditCards;
+    public SpellChecking(TermDictionary dictionary, int[] termFrequencies) {
+        this.dictionary = dictionary;
+        this.termFrequencies = termFrequencies;
         this.vocabulary = buildVocabulary();
     }
 
@@ -77,7 +75,8 @@ public class SpellChecking {
      * @return Number of times the word appears (0 if not found)
      */
     public int getWordFrequency(String word) {
-        return wordFrequency.getOrDefault(word.toLowerCase(), 0);
+        int termId = dictionary.lookup(word.toLowerCase());
+        return termId < 0 || termId >= termFrequencies.length ? 0 : termFrequencies[termId];
     }
 
     // =========================================
@@ -85,42 +84,20 @@ public class SpellChecking {
     // =========================================
 
     /**
-     * Builds vocabulary from credit card data.
-     * Extracts words from titles, descriptions, and bank names.
+     * Builds vocabulary from the term dictionary.
+     * Only alphabetic terms are suggested; numbers such as fees are skipped.
      * 
-     * @return Set of unique words in lowercase
+     * @return Unique words in lowercase
      */
-    private Set<String> buildVocabulary() {
-        Set<String> vocabulary = new HashSet<>();
-        Pattern wordPattern = Pattern.compile("\\b[a-zA-Z]+\\b");
-
-        for (CreditCard card : creditCards) {
-            addWordsToVocabulary(card.getCardTitle(), vocabulary, wordPattern);
-            addWordsToVocabulary(card.getProductValueProp(), vocabulary, wordPattern);
-            addWordsToVocabulary(card.getProductBenefits(), vocabulary, wordPattern);
-            addWordsToVocabulary(card.getBankName(), vocabulary, wordPattern);
-        }
-        
-        return vocabulary;
-    }
-
-    /**
-     * Extracts words from text and adds them to vocabulary.
-     * Also updates word frequency counts.
-     * 
-     * @param text The text to process
-     * @param vocabulary Set to add words to
-     * @param pattern Regex pattern for word matching
-     */
-    private void addWordsToVocabulary(String text, Set<String> vocabulary, Pattern pattern) {
-        if (text != null) {
-            Matcher matcher = pattern.matcher(text.toLowerCase());
-            while (matcher.find()) {
-                String word = matcher.group();
-                vocabulary.add(word);
-                wordFrequency.merge(word, 1, Integer::sum);
+    private List<String> buildVocabulary() {
+        List<String> vocabulary = new ArrayList<>();
+        for (int termId = 0; termId < dictionary.size(); termId++) {
+            String term = dictionary.term(termId);
+            if (term.chars().allMatch(Character::isLetter)) {
+                vocabulary.add(term);
             }
         }
+        return vocabulary;
     }
 
     // =========================================
@@ -0,0 +1,154 @@
+package com.example.demo.util;
+
+import java.util.Arrays;
+
+/**
+ * Maps terms to dense integer IDs.
+ * Terms can be looked up straight from a character buffer, so tokens that
+ * are already known never have to be turned into strings. IDs are assigned
+ * in first-seen order starting at 0.
+ *
+ * A dictionary is filled while an index is built and only read afterwards;
+ * concurrent lookups are safe once no more terms are being added.
+ */
+public final class TermDictionary {
+
+    // =========================================
+    // Fields
+    // =========================================
+
+    private int[] table;        // Open-addressing slots holding term IDs (-1 = empty)
+    private String[] terms;     // Term text by ID
+    private int[] hashes;       // Cached String-compatible hash by ID
+    private int size;
+
+    public TermDictionary() {
+        this.table = new int[1024];
+        Arrays.fill(table, -1);
+        this.terms = new String[256];
+        this.hashes = new int[256];
+    }
+
+    // =========================================
+    // Public API Methods
+    // =========================================
+
+    /**
+     * Returns the ID of a term, adding it if it is new.
+     *
+     * @param chars Buffer holding the term
+     * @param length Number of characters of the term in the buffer
+     * @return The term ID
+     */
+    public int add(char[] chars, int length) {
+        int hash = hash(chars, length);
+        int slot = findSlot(chars, length, hash);
+        if (table[slot] >= 0) {
+            return table[slot];
+        }
+
+        int id = size++;
+        if (id == terms.length) {
+            terms = Arrays.copyOf(terms, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        terms[id] = new String(chars, 0, length);
+        hashes[id] = hash;
+        table[slot] = id;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * @param chars Buffer holding the term
+     * @param length Number of characters of the term in the buffer
+     * @return The term ID, or -1 if the term is unknown
+     */
+    public int lookup(char[] chars, int length) {
+        return table[findSlot(chars, length, hash(chars, length))];
+    }
+
+    /**
+     * @param term The term
+     * @return The term ID, or -1 if the term is unknown
+     */
+    public int lookup(String term) {
+        int hash = term.hashCode();
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id < 0 || (hashes[id] == hash && terms[id].equals(term))) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * @param id A term ID
+     * @return The text of the term
+     */
+    public String term(int id) {
+        return terms[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // =========================================
+    // Hash Table Helpers
+    // =========================================
+
+    private int findSlot(char[] chars, int length, int hash) {
+        int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id < 0 || (hashes[id] == hash && equals(terms[id], chars, length))) {
+                return slot;
+            }
+        }
+    }
+
+    private void rehash() {
+        int[] grown = new int[table.length * 2];
+        Arrays.fill(grown, -1);
+        int mask = grown.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (grown[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = id;
+        }
+        table = grown;
+    }
+
+    // Same value as String.hashCode(), so string and buffer lookups agree
+    private static int hash(char[] chars, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    // Spreads String hash codes, whose low bits cluster for short terms
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equals(String term, char[] chars, int length) {
+        if (term.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (term.charAt(i) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.util;
+
+import java.util.Arrays;
+
+/**
+ * The terms of one document as parallel primitive arrays: term IDs in
+ * increasing order and how often each occurs. Lookups are a binary search
+ * over an int array, and two vectors can be compared with a linear merge.
+ */
+public final class TermVector {
+
+    private final int[] termIds;
+    private final int[] frequencies;
+    private final int length; // Total number of tokens
+
+    private TermVector(int[] termIds, int[] frequencies, int length) {
+        this.termIds = termIds;
+        this.frequencies = frequencies;
+        this.length = length;
+    }
+
+    /**
+     * Builds a vector from token sequences, e.g. one per field.
+     *
+     * @param sequences Term IDs in token order
+     * @return The combined term vector
+     */
+    public static TermVector of(int[]... sequences) {
+        int length = 0;
+        for (int[] sequence : sequences) {
+            length += sequence.length;
+        }
+        int[] all = new int[length];
+        int offset = 0;
+        for (int[] sequence : sequences) {
+            System.arraycopy(sequence, 0, all, offset, sequence.length);
+            offset += sequence.length;
+        }
+        Arrays.sort(all);
+
+        int[] termIds = new int[length];
+        int[] frequencies = new int[length];
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            if (size > 0 && termIds[size - 1] == all[i]) {
+                frequencies[size - 1]++;
+            } else {
+                termIds[size] = all[i];
+                frequencies[size] = 1;
+                size++;
+            }
+        }
+        return new TermVector(Arrays.copyOf(termIds, size), Arrays.copyOf(frequencies, size), length);
+    }
+
+    /**
+     * @param termId A term ID
+     * @return Number of occurrences of the term (0 if absent)
+     */
+    public int frequency(int termId) {
+        int i = Arrays.binarySearch(termIds, termId);
+        return i >= 0 ? frequencies[i] : 0;
+    }
+
+    /** Number of distinct terms. */
+    public int size() {
+        return termIds.length;
+    }
+
+    public int termId(int index) {
+        return termIds[index];
+    }
+
+    public int frequencyAt(int index) {
+        return frequencies[index];
+    }
+
+    /** Total number of tokens, counting repeats. */
+    public int length() {
+        return length;
+    }
+}
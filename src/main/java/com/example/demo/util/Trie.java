@@ -77,6 +77,26 @@ public class Trie {
         return results;
     }
 
+    /**
+     * Finds up to {@code limit} words that start with the given prefix.
+     * Stops walking the Trie as soon as enough words are found, so the cost
+     * depends on the limit rather than on how many words share the prefix.
+     * 
+     * @param prefix The prefix to search for
+     * @param limit Maximum number of words to return
+     * @return List of matching words (empty if none found)
+     */
+    public List<String> searchPrefix(String prefix, int limit) {
+        List<String> results = new ArrayList<>(Math.min(limit, 16));
+        TrieNode prefixNode = findNode(prefix);
+        
+        if (prefixNode != null && limit > 0) {
+            findWords(prefixNode, new StringBuilder(prefix), results, limit);
+        }
+        
+        return results;
+    }
+
     // =========================================
     // Private Helper Methods
     // =========================================
@@ -114,4 +134,33 @@ public class Trie {
             findAllWords(entry.getValue(), currentPrefix + entry.getKey(), results);
         }
     }
+
+    /**
+     * Depth-first collection of words that stops once the limit is reached.
+     * Reuses one buffer for the current path instead of building a string per node.
+     * 
+     * @param node The starting node
+     * @param path The characters leading to this node
+     * @param results List to store found words
+     * @param limit Maximum number of words to collect
+     * @return true once the limit has been reached
+     */
+    private boolean findWords(TrieNode node, StringBuilder path, List<String> results, int limit) {
+        if (node.isEndOfWord) {
+            results.add(path.toString());
+            if (results.size() >= limit) {
+                return true;
+            }
+        }
+        
+        for (Map.Entry<Character, TrieNode> entry : node.children.entrySet()) {
+            path.append(entry.getKey().charValue());
+            boolean full = findWords(entry.getValue(), path, results, limit);
+            path.setLength(path.length() - 1);
+            if (full) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.example.demo.util;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * Top-K disjunctive query evaluation using the WAND algorithm.
+ * Each query term carries an upper bound on the score it can add to a
+ * document. Once K results are collected, their lowest score becomes a
+ * threshold, and documents whose summed upper bounds cannot beat it are
+ * skipped without being scored. The per-block maxima of the postings skip
+ * tables refine this further (block-max WAND): whole blocks whose combined
+ * maxima cannot beat the threshold are skipped without being decoded. The
+ * result matches exhaustive scoring, with ties broken by lower document ID.
+ */
+public final class WandSearcher {
+
+    private WandSearcher() {
+    }
+
+    /**
+     * A query term: its postings and how many times it occurs in the query.
+     */
+    public record QueryTerm(InvertedIndex.Postings postings, float weight) {
+    }
+
+    /**
+     * A matching document and its score.
+     */
+    public record ScoredDoc(int docId, float score) {
+    }
+
+    /**
+     * Finds the K highest-scoring documents that match any query term.
+     *
+     * @param terms Query terms present in the index
+     * @param filter Documents to consider; others are skipped before scoring
+     * @param k Maximum number of results
+     * @return Matching documents by descending score, then ascending document ID
+     */
+    public static List<ScoredDoc> search(List<QueryTerm> terms, IntPredicate filter, int k) {
+        if (terms.isEmpty() || k <= 0) {
+            return List.of();
+        }
+
+        int n = terms.size();
+        InvertedIndex.Cursor[] cursors = new InvertedIndex.Cursor[n];
+        float[] weights = new float[n];
+        float[] upperBounds = new float[n];
+        for (int i = 0; i < n; i++) {
+            QueryTerm term = terms.get(i);
+            cursors[i] = term.postings().cursor();
+            weights[i] = term.weight();
+            upperBounds[i] = term.postings().getMaxImpact() * term.weight();
+        }
+
+        // Worst result on top: lowest score, then highest document ID
+        PriorityQueue<ScoredDoc> heap = new PriorityQueue<>(Math.min(k, 1024) + 1,
+                Comparator.comparingDouble(ScoredDoc::score)
+                        .thenComparing(Comparator.comparingInt(ScoredDoc::docId).reversed()));
+        float threshold = 0f;
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+
+        while (true) {
+            sortByDocId(order, cursors);
+
+            // Find the pivot: the first cursor at which the accumulated upper
+            // bounds could beat the current threshold
+            float accumulated = 0f;
+            int pivot = -1;
+            for (int i = 0; i < n; i++) {
+                if (cursors[order[i]].docId() == InvertedIndex.NO_MORE_DOCS) break;
+                accumulated += upperBounds[order[i]];
+                if (heap.size() < k || accumulated > threshold) {
+                    pivot = i;
+                    break;
+                }
+            }
+            if (pivot < 0) break;
+
+            int pivotDoc = cursors[order[pivot]].docId();
+            while (pivot + 1 < n && cursors[order[pivot + 1]].docId() == pivotDoc) {
+                pivot++;
+            }
+
+            if (heap.size() == k) {
+                // The blocks around the pivot may score too low even though the
+                // terms' global maxima do not: skip past the first of those blocks to end
+                float blockBound = 0f;
+                int nextDoc = pivot + 1 < n ? cursors[order[pivot + 1]].docId() : InvertedIndex.NO_MORE_DOCS;
+                for (int i = 0; i <= pivot; i++) {
+                    int lastDoc = cursors[order[i]].shallowAdvance(pivotDoc);
+                    blockBound += cursors[order[i]].getBlockMaxImpact() * weights[order[i]];
+                    if (lastDoc != InvertedIndex.NO_MORE_DOCS) {
+                        nextDoc = Math.min(nextDoc, lastDoc + 1);
+                    }
+                }
+                if (blockBound <= threshold) {
+                    for (int i = 0; i <= pivot; i++) {
+                        if (cursors[order[i]].docId() < nextDoc) {
+                            cursors[order[i]].advance(nextDoc);
+                        }
+                    }
+                    continue;
+                }
+            }
+
+            if (cursors[order[0]].docId() == pivotDoc) {
+                // Every cursor up to the pivot is on the pivot document: score it
+                if (filter.test(pivotDoc)) {
+                    float score = 0f;
+                    for (int i = 0; i < n && cursors[order[i]].docId() == pivotDoc; i++) {
+                        score += cursors[order[i]].impact() * weights[order[i]];
+                    }
+                    if (heap.size() < k) {
+                        heap.add(new ScoredDoc(pivotDoc, score));
+                    } else if (score > threshold) {
+                        heap.poll();
+                        heap.add(new ScoredDoc(pivotDoc, score));
+                    }
+                    if (heap.size() == k) {
+                        threshold = heap.peek().score();
+                    }
+                }
+                for (int i = 0; i < n && cursors[order[i]].docId() == pivotDoc; i++) {
+                    cursors[order[i]].next();
+                }
+            } else {
+                // Documents before the pivot cannot beat the threshold: skip them
+                for (int i = 0; i < pivot; i++) {
+                    if (cursors[order[i]].docId() < pivotDoc) {
+                        cursors[order[i]].advance(pivotDoc);
+                    }
+                }
+            }
+        }
+
+        List<ScoredDoc> results = new ArrayList<>(heap);
+        results.sort(Comparator.comparingDouble(ScoredDoc::score).reversed()
+                .thenComparingInt(ScoredDoc::docId));
+        return results;
+    }
+
+    // Insertion sort: queries have few terms and the order changes little per step
+    private static void sortByDocId(int[] order, InvertedIndex.Cursor[] cursors) {
+        for (int i = 1; i < order.length; i++) {
+            int current = order[i];
+            int doc = cursors[current].docId();
+            int j = i - 1;
+            while (j >= 0 && cursors[order[j]].docId() > doc) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = current;
+        }
+    }
+}
@@ -7,6 +7,7 @@ let searchHistory = [];
 document.addEventListener('DOMContentLoaded', function() {
   fetchCards();
   loadSearchHistory();
+  openSuggestionStream();
 });
 
 // Navigation functions
@@ -40,6 +41,66 @@ function toggleMenu() {
   hamburger.classList.toggle('active');
 }
 
+// Streaming autocomplete: one event stream, one small POST per keystroke
+let suggestionSession = null;
+let suggestionSeq = 0;
+
+function openSuggestionStream() {
+  const source = new EventSource('http://localhost:8080/api/creditcards/suggest/stream');
+
+  source.addEventListener('session', event => {
+    suggestionSession = event.data;
+  });
+
+  source.addEventListener('suggestions', event => {
+    const data = JSON.parse(event.data);
+    // Ignore results for anything but the latest keystroke
+    if (data.seq === suggestionSeq) {
+      displaySuggestions(data.completions.concat(data.corrections));
+    }
+  });
+
+  source.onerror = () => {
+    // EventSource reconnects by itself and a new session event follows
+    suggestionSession = null;
+  };
+}
+
+function onSearchInput() {
+  fetchCards();
+
+  const value = document.getElementById("searchInput").value;
+  const words = value.split(/\s+/);
+  const prefix = words[words.length - 1];
+  if (!suggestionSession || !prefix) {
+    displaySuggestions([]);
+    return;
+  }
+
+  suggestionSeq++;
+  // Form-encoded body keeps this a simple CORS request (no preflight)
+  fetch(`http://localhost:8080/api/creditcards/suggest/${suggestionSession}`, {
+    method: 'POST',
+    body: new URLSearchParams({ prefix: prefix, seq: suggestionSeq })
+  }).then(response => {
+    if (response.status === 410) suggestionSession = null;
+  }).catch(error => console.error("Failed to send prefix", error));
+}
+
+function displaySuggestions(words) {
+  const list = document.getElementById("searchSuggestions");
+  if (!list) return;
+
+  const value = document.getElementById("searchInput").value;
+  const head = value.substring(0, value.search(/\S*$/));
+  list.innerHTML = "";
+  words.forEach(word => {
+    const option = document.createElement("option");
+    option.value = head + word;
+    list.appendChild(option);
+  });
+}
+
 // Card fetching and display functions
 async function fetchCards() {
   const search = document.getElementById("searchInput")?.value || "";
@@ -458,14 +519,16 @@ function clearHistory() {
 }
 
 // Add these new functions
+// Only card IDs are sent; the server scores them against its own index
 async function rankCardsByRelevance(cards) {
+  const query = document.getElementById("searchInput")?.value.trim() || "";
   try {
     const response = await fetch('http://localhost:8080/api/creditcards/rank', {
       method: 'POST',
       headers: {
         'Content-Type': 'application/json'
       },
-      body: JSON.stringify(cards)
+      body: JSON.stringify({ ids: cards.map(card => card.id), query })
     });
 
     if (!response.ok) {
@@ -0,0 +1,165 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares throughput and tail latency of the platform-thread Tomcat pool
+ * against virtual-thread request execution at high concurrency.
+ * Not part of the regular build; run on Java 21 with:
+ *
+ *   mvn -Pvirtual-threads test -Dtest=ThreadingLoadTest -Dloadtest=true
+ *
+ * Tunables: -Dloadtest.concurrency (default 1000), -Dloadtest.seconds (default 20).
+ * Each mode gets its own warm-up phase so JIT state carried over from the
+ * first run does not favour the second. The numbers are printed for
+ * comparison; the test itself only fails if a mode serves no requests or
+ * answers any of them with an error.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ThreadingLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 1000);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.seconds", 20));
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private static final String[] PATHS = {
+            "/api/creditcards?search=cash%20back",
+            "/api/creditcards?search=travel%20insurance&limit=10",
+            "/api/creditcards?bankName=CIBC&fields=summary",
+            "/api/creditcards/autocomplete?prefix=tra",
+            "/api/creditcards/spelling-suggestions?word=travl",
+            "/api/creditcards/page-ranking?term=rewards",
+    };
+
+    @Test
+    void compareThreadingModes() throws Exception {
+        LoadResult platform = runAgainst(false);
+        System.out.println("platform threads: " + platform);
+        assertHealthy(platform);
+
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads require Java 21");
+        LoadResult virtual = runAgainst(true);
+        System.out.println("virtual threads:  " + virtual);
+        assertHealthy(virtual);
+        System.out.printf("throughput ratio (virtual/platform): %.2f, p99 ratio: %.2f%n",
+                virtual.throughput / platform.throughput,
+                (double) virtual.p99Micros / platform.p99Micros);
+    }
+
+    private static void assertHealthy(LoadResult result) {
+        assertTrue(result.throughput > 0, "no requests completed");
+        assertEquals(0, result.errors, "failed or non-200 requests");
+    }
+
+    private LoadResult runAgainst(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "server.tomcat.max-connections=20000",
+                        "server.tomcat.accept-count=1000",
+                        "creditcards.admission.enabled=false", // Measure threading, not load shedding
+                        "creditcards.warmup.enabled=false",
+                        "logging.level.root=WARN")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            generateLoad(port, WARMUP);
+            return generateLoad(port, DURATION);
+        }
+    }
+
+    /**
+     * Drives the server from CONCURRENCY closed-loop clients for the given
+     * duration and records per-request latency.
+     */
+    private LoadResult generateLoad(int port, Duration duration) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long endAt = System.nanoTime() + duration.toNanos();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        List<Future<long[]>> workers = new ArrayList<>();
+        for (int worker = 0; worker < CONCURRENCY; worker++) {
+            int offset = worker;
+            workers.add(clients.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                long errors = 0;
+                for (int i = offset; System.nanoTime() < endAt; i++) {
+                    HttpRequest request = HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + port + PATHS[i % PATHS.length])).build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) errors++;
+                    } catch (Exception e) {
+                        errors++;
+                    }
+                    if (count == latencies.length - 1) {
+                        latencies = Arrays.copyOf(latencies, latencies.length * 2);
+                    }
+                    latencies[count++] = (System.nanoTime() - start) / 1000;
+                }
+                // The error count rides along in the last slot
+                long[] result = Arrays.copyOf(latencies, count + 1);
+                result[count] = errors;
+                return result;
+            }));
+        }
+
+        List<long[]> perWorker = new ArrayList<>();
+        long errors = 0;
+        int total = 0;
+        for (Future<long[]> worker : workers) {
+            long[] result = worker.get();
+            errors += result[result.length - 1];
+            total += result.length - 1;
+            perWorker.add(result);
+        }
+        clients.shutdown();
+
+        long[] all = new long[total];
+        int position = 0;
+        for (long[] result : perWorker) {
+            System.arraycopy(result, 0, all, position, result.length - 1);
+            position += result.length - 1;
+        }
+        Arrays.sort(all);
+        return new LoadResult(total / (double) duration.toSeconds(),
+                percentile(all, 0.50), percentile(all, 0.99), errors);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private record LoadResult(double throughput, long p50Micros, long p99Micros, long errors) {
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, p50 %d us, p99 %d us, %d errors",
+                    throughput, p50Micros, p99Micros, errors);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.config;
+
+import com.example.demo.service.SearchHistoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"creditcards.warmup.max-rounds=2", "creditcards.warmup.queries=3"})
+class WarmupRunnerTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SearchHistoryService searchHistoryService;
+
+    @Test
+    void replaysQueriesThroughTheServerBeforeReady() {
+        Timer duration = meterRegistry.find("creditcards.warmup.duration").timer();
+        assertNotNull(duration);
+        assertEquals(1, duration.count());
+
+        // Requests were served by the handlers...
+        for (String uri : new String[] {"/api/creditcards", "/api/creditcards/page-ranking", "/api/creditcards/rank",
+                "/api/creditcards/{id}/similar", "/api/creditcards/autocomplete"}) {
+            Timer requests = meterRegistry.find("http.server.requests").tag("uri", uri).tag("status", "200").timer();
+            assertNotNull(requests, uri);
+            assertTrue(requests.count() > 0, uri);
+        }
+        assertNotNull(meterRegistry.find("http.server.requests").tag("status", "304").timer());
+
+        // ...through the admission control interceptor...
+        for (String endpoint : new String[] {"/api/creditcards", "/api/creditcards?search",
+                "/api/creditcards/page-ranking", "/api/creditcards/rank"}) {
+            assertNotNull(meterRegistry.find("creditcards.admission.limit").tag("endpoint", endpoint).gauge(), endpoint);
+        }
+        // ...and nothing was shed or left in flight
+        meterRegistry.find("creditcards.admission.rejected").counters()
+                .forEach(counter -> assertEquals(0, counter.count()));
+        meterRegistry.find("creditcards.admission.in.flight").gauges()
+                .forEach(gauge -> assertEquals(0, gauge.value()));
+
+        // Replayed searches are not left in the search history
+        assertTrue(searchHistoryService.getPopularSearches(100).isEmpty(),
+                searchHistoryService.getPopularSearches(100).toString());
+    }
+}
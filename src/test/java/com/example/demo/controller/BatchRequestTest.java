@@ -0,0 +1,50 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.BatchQueryService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = "creditcards.warmup.enabled=false")
+@AutoConfigureMockMvc
+class BatchRequestTest {
+
+    private static final String QUERY = "{\"type\":\"word-frequency\",\"params\":{\"word\":\"travel\"}}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void acceptsUpToMaxQueries() throws Exception {
+        MockHttpServletResponse response = postBatch(BatchQueryService.MAX_QUERIES);
+        assertEquals(200, response.getStatus());
+        JsonNode results = objectMapper.readTree(response.getContentAsByteArray()).get("results");
+        assertEquals(BatchQueryService.MAX_QUERIES, results.size());
+        results.forEach(result -> assertEquals(200, result.get("status").asInt()));
+    }
+
+    @Test
+    void rejectsLargerBatches() throws Exception {
+        assertEquals(400, postBatch(BatchQueryService.MAX_QUERIES + 1).getStatus());
+    }
+
+    private MockHttpServletResponse postBatch(int size) throws Exception {
+        String body = "[" + String.join(",", Collections.nCopies(size, QUERY)) + "]";
+        return mockMvc.perform(post("/api/creditcards/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andReturn().getResponse();
+    }
+}
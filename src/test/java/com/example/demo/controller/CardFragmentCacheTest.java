@@ -0,0 +1,58 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.SearchProperties;
+import com.example.demo.model.CreditCard;
+import com.example.demo.service.CardIndex;
+import com.example.demo.service.CreditCardService;
+import com.example.demo.util.ExcelReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CardFragmentCacheTest {
+
+    @Test
+    void reloadWithUnchangedContentKeepsFragmentsPrecomputed() throws IOException {
+        CardIndex first = new CardIndex(loadCatalog(), new SearchProperties());
+        CardIndex reloaded = new CardIndex(loadCatalog(), new SearchProperties());
+        assertEquals(first.getCatalogVersion(), reloaded.getCatalogVersion());
+
+        CreditCardService service = mock(CreditCardService.class);
+        CardFragmentCache cache = new CardFragmentCache(service);
+
+        when(service.snapshot()).thenReturn(first);
+        CreditCard card = first.getAllCards().get(7);
+        byte[] before = cache.forFields(CardFragmentCache.ALL_FIELDS).get(card);
+        assertSame(before, cache.forFields(CardFragmentCache.ALL_FIELDS).get(card));
+
+        // Same catalog version, new card instances: the new cards are served precomputed too
+        when(service.snapshot()).thenReturn(reloaded);
+        CreditCard reloadedCard = reloaded.getAllCards().get(7);
+        byte[] after = cache.forFields(CardFragmentCache.ALL_FIELDS).get(reloadedCard);
+        assertSame(after, cache.forFields(CardFragmentCache.ALL_FIELDS).get(reloadedCard));
+        assertSame(cache.forFields(CardFragmentCache.SUMMARY_FIELDS).get(reloadedCard),
+                cache.forFields(CardFragmentCache.SUMMARY_FIELDS).get(reloadedCard));
+        assertArrayEquals(before, after);
+
+        // Cards of the replaced snapshot are still encoded, just not from the cache
+        byte[] old = cache.forFields(CardFragmentCache.ALL_FIELDS).get(card);
+        assertNotSame(after, old);
+        assertArrayEquals(before, old);
+    }
+
+    private static List<CreditCard> loadCatalog() throws IOException {
+        try (InputStream stream = CardFragmentCacheTest.class.getClassLoader()
+                .getResourceAsStream("Credit_Card_Details.xlsx")) {
+            return ExcelReader.readCreditCardsFromExcel(stream);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest(properties = "creditcards.warmup.enabled=false")
+@AutoConfigureMockMvc
+class CardPaginationTest {
+
+    private static final String NEXT_CURSOR = CreditCardController.NEXT_CURSOR_HEADER;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void pagesConcatenateToTheFullListing() throws Exception {
+        for (String query : new String[] {"sort=annualFee,desc", "search=travel rewards", "bankName=RBC&sort=cashRate"}) {
+            List<Integer> expected = ids(fetch("/api/creditcards?" + query));
+
+            List<Integer> paged = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                MockHttpServletResponse page = fetch("/api/creditcards?" + query + "&limit=7"
+                        + (cursor == null ? "" : "&cursor=" + cursor));
+                assertEquals(200, page.getStatus(), query);
+                List<Integer> ids = ids(page);
+                assertTrue(ids.size() <= 7);
+                paged.addAll(ids);
+                cursor = page.getHeader(NEXT_CURSOR);
+                pages++;
+            } while (cursor != null);
+
+            // The last page carries no cursor, and pages are only as many as needed
+            assertEquals(expected, paged, query);
+            assertEquals(Math.max(1, (expected.size() + 6) / 7), pages, query);
+        }
+    }
+
+    @Test
+    void exactlyFullLastPageHasNoCursor() throws Exception {
+        int total = ids(fetch("/api/creditcards")).size();
+        MockHttpServletResponse all = fetch("/api/creditcards?limit=" + total);
+        assertEquals(total, ids(all).size());
+        assertNull(all.getHeader(NEXT_CURSOR));
+
+        MockHttpServletResponse first = fetch("/api/creditcards?limit=" + (total - 1));
+        String cursor = first.getHeader(NEXT_CURSOR);
+        assertNotNull(cursor);
+        MockHttpServletResponse last = fetch("/api/creditcards?limit=" + (total - 1) + "&cursor=" + cursor);
+        assertEquals(1, ids(last).size());
+        assertNull(last.getHeader(NEXT_CURSOR));
+    }
+
+    @Test
+    void limitIsValidatedAndClamped() throws Exception {
+        int total = ids(fetch("/api/creditcards")).size();
+        assertEquals(400, fetch("/api/creditcards?limit=0").getStatus());
+        assertEquals(400, fetch("/api/creditcards?limit=-5").getStatus());
+
+        MockHttpServletResponse huge = fetch("/api/creditcards?limit=" + Integer.MAX_VALUE);
+        assertEquals(200, huge.getStatus());
+        assertEquals(Math.min(total, 1000), ids(huge).size());
+        assertNull(huge.getHeader(NEXT_CURSOR));
+    }
+
+    @Test
+    void rejectsCursorsOfOtherQueries() throws Exception {
+        String cursor = fetch("/api/creditcards?sort=annualFee&limit=5").getHeader(NEXT_CURSOR);
+        assertNotNull(cursor);
+
+        assertEquals(400, fetch("/api/creditcards?sort=annualFee,desc&limit=5&cursor=" + cursor).getStatus());
+        assertEquals(400, fetch("/api/creditcards?sort=annualFee&search=travel&limit=5&cursor=" + cursor).getStatus());
+        assertEquals(400, fetch("/api/creditcards?sort=annualFee&minFee=0&maxFee=100&limit=5&cursor=" + cursor).getStatus());
+
+        // Page size, projection and format do not change the result order
+        assertEquals(200, fetch("/api/creditcards?sort=annualFee&limit=9&fields=summary&cursor=" + cursor).getStatus());
+        assertEquals(200, fetch("/api/creditcards?sort=ANNUALFEE,asc&cursor=" + cursor).getStatus());
+    }
+
+    @Test
+    void rejectsTamperedAndStaleCursors() throws Exception {
+        String cursor = fetch("/api/creditcards?limit=5").getHeader(NEXT_CURSOR);
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+
+        assertEquals(400, fetch("/api/creditcards?cursor=garbage!").getStatus());
+        assertEquals(400, fetch("/api/creditcards?cursor=" + encode(parts[0] + ":" + parts[1] + ":-5")).getStatus());
+        assertEquals(400, fetch("/api/creditcards?cursor=" + encode(parts[0] + ":" + parts[1])).getStatus());
+        assertEquals(410, fetch("/api/creditcards?cursor=" + encode("0ld" + ":" + parts[1] + ":" + parts[2])).getStatus());
+
+        // An offset past the end is an empty last page, not an error
+        MockHttpServletResponse past = fetch("/api/creditcards?cursor=" + encode(parts[0] + ":" + parts[1] + ":100000"));
+        assertEquals(200, past.getStatus());
+        assertEquals(List.of(), ids(past));
+        assertNull(past.getHeader(NEXT_CURSOR));
+    }
+
+    private MockHttpServletResponse fetch(String uri) throws Exception {
+        return mockMvc.perform(get(uri)).andReturn().getResponse();
+    }
+
+    private List<Integer> ids(MockHttpServletResponse response) throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        for (JsonNode card : objectMapper.readTree(response.getContentAsByteArray())) {
+            ids.add(card.get("id").asInt());
+        }
+        return ids;
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
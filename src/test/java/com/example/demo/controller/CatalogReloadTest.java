@@ -0,0 +1,51 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.CardIndex;
+import com.example.demo.service.CreditCardService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = "creditcards.warmup.enabled=false")
+@AutoConfigureMockMvc
+class CatalogReloadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CreditCardService creditCardService;
+
+    @Test
+    void reloadSwapsInANewSnapshotOfTheSameCatalog() throws Exception {
+        CardIndex before = creditCardService.snapshot();
+        MockHttpServletResponse listing = mockMvc.perform(get("/api/creditcards")).andReturn().getResponse();
+
+        MockHttpServletResponse response = mockMvc.perform(post("/api/creditcards/reload")).andReturn().getResponse();
+        assertEquals(200, response.getStatus());
+        JsonNode body = objectMapper.readTree(response.getContentAsByteArray());
+        assertEquals(before.getCatalogVersion(), body.get("catalogVersion").asText());
+        assertEquals(before.getShardCount(), body.get("shards").asInt());
+
+        // Unchanged content: new snapshot, same version, same responses
+        assertNotSame(before, creditCardService.snapshot());
+        MockHttpServletResponse relisted = mockMvc.perform(get("/api/creditcards")).andReturn().getResponse();
+        assertEquals(200, relisted.getStatus());
+        assertEquals(listing.getHeader("ETag"), relisted.getHeader("ETag"));
+        assertArrayEquals(listing.getContentAsByteArray(), relisted.getContentAsByteArray());
+    }
+}
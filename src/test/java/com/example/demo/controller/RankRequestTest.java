@@ -0,0 +1,146 @@
+package com.example.demo.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RankRequestTest {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int CARD_COUNT = 81;
+
+    // =========================================
+    // Accepted Shapes
+    // =========================================
+
+    @Test
+    void readsObjectBody() throws IOException {
+        RankRequest request = read("{\"ids\": [3, 17, 42], \"query\": \"travel insurance\", \"sort\": \"annualFee,asc\"}");
+        assertArrayEquals(new int[] {3, 17, 42}, request.ids());
+        assertEquals("travel insurance", request.query());
+        assertEquals("annualFee,asc", request.sort());
+
+        RankRequest idsOnly = read("{\"query\": null, \"ids\": []}");
+        assertArrayEquals(new int[0], idsOnly.ids());
+        assertNull(idsOnly.query());
+        assertNull(idsOnly.sort());
+    }
+
+    @Test
+    void readsIdArray() throws IOException {
+        RankRequest request = read("[80, 0, 80, 5]");
+        assertArrayEquals(new int[] {80, 0, 80, 5}, request.ids());
+        assertNull(request.query());
+        assertNull(request.sort());
+    }
+
+    @Test
+    void readsIdsOfCardObjects() throws IOException {
+        String body = "[{\"cardTitle\": \"A\", \"id\": 3, \"bankName\": {\"nested\": [1, 2]}},"
+                + " {\"id\": 17, \"annualFees\": \"$0\", \"tags\": [\"x\", {\"id\": 99}]}]";
+        assertArrayEquals(new int[] {3, 17}, read(body).ids());
+    }
+
+    @Test
+    void growsPastTheInitialBuffer() throws IOException {
+        StringBuilder body = new StringBuilder("[");
+        int[] expected = new int[500];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i % CARD_COUNT;
+            body.append(i == 0 ? "" : ",").append(expected[i]);
+        }
+        assertArrayEquals(expected, read(body.append(']').toString()).ids());
+    }
+
+    // =========================================
+    // Rejected Bodies
+    // =========================================
+
+    @Test
+    void rejectsIdsOutsideTheCatalog() {
+        assertInvalid("[-1]");
+        assertInvalid("[81]");
+        assertInvalid("{\"ids\": [1, 2, 81]}");
+        assertInvalid("[{\"id\": -3}]");
+        assertInvalid("[{\"id\": 1000}]");
+    }
+
+    @Test
+    void rejectsIdsThatAreNotIntegers() {
+        assertInvalid("[1.5]");
+        assertInvalid("[1e2]");
+        assertInvalid("[\"3\"]");
+        assertInvalid("[null]");
+        assertInvalid("[[3]]");
+        assertInvalid("[{\"id\": \"3\"}]");
+        assertInvalid("[{\"id\": 3.0}]");
+    }
+
+    @Test
+    void rejectsNumbersTooLargeForAnId() {
+        // 2^32 + 3 would be card 3 if truncated to an int
+        assertInvalid("[4294967299]");
+        assertInvalid("[{\"id\": 4294967299}]");
+        assertInvalid("[123456789012345678901234567890]");
+    }
+
+    @Test
+    void rejectsMissingIds() {
+        assertInvalid("{\"query\": \"travel\"}");
+        assertInvalid("{}");
+        assertInvalid("[{\"cardTitle\": \"A\"}]");
+        assertInvalid("{\"ids\": 3}");
+    }
+
+    @Test
+    void rejectsUnknownFields() {
+        assertInvalid("{\"ids\": [1], \"limit\": 5}");
+        assertInvalid("{\"IDS\": [1]}");
+    }
+
+    @Test
+    void rejectsOtherShapes() {
+        assertInvalid("3");
+        assertInvalid("\"ids\"");
+        assertInvalid("null");
+        assertInvalid("{\"ids\": [1], \"query\": 5}");
+        assertInvalid("{\"ids\": [1], \"sort\": [\"annualFee\"]}");
+        assertInvalid("[1] [2]");
+        assertInvalid("{\"ids\": [1]} {}");
+    }
+
+    @Test
+    void rejectsTruncatedJson() {
+        assertThrows(JsonProcessingException.class, () -> read("[1, 2"));
+        assertThrows(JsonProcessingException.class, () -> read("{\"ids\": [1, 2]"));
+        assertThrows(JsonProcessingException.class, () -> read("[{\"id\": 3, \"cardTitle\": \"A"));
+        assertThrows(JsonProcessingException.class, () -> read("{\"ids\": [1,"));
+    }
+
+    @Test
+    void rejectsEmptyBody() {
+        assertInvalid("");
+    }
+
+    // =========================================
+    // Helpers
+    // =========================================
+
+    private static RankRequest read(String body) throws IOException {
+        try (JsonParser parser = JSON.createParser(body)) {
+            return RankRequest.read(parser, CARD_COUNT);
+        }
+    }
+
+    private static void assertInvalid(String body) {
+        assertThrows(IllegalArgumentException.class, () -> read(body), body);
+    }
+}
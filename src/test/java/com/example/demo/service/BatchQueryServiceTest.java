@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ExecutorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class BatchQueryServiceTest {
+
+    private final ExecutorFactory executorFactory = new ExecutorFactory(new MockEnvironment());
+    private final CreditCardService creditCardService = mock(CreditCardService.class);
+    private final SearchHistoryService searchHistoryService = mock(SearchHistoryService.class);
+    private final CardIndex snapshot = mock(CardIndex.class);
+
+    @AfterEach
+    void shutdown() throws Exception {
+        executorFactory.shutdown();
+    }
+
+    @Test
+    void reportsStatusPerQuery() {
+        when(creditCardService.snapshot()).thenReturn(snapshot);
+        when(snapshot.getAutocompleteSuggestions("tra")).thenReturn(List.of("travel"));
+        when(snapshot.getWordFrequency("boom")).thenThrow(new IllegalStateException("index broken"));
+        when(snapshot.getSpellingSuggestions("slow")).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return List.of();
+        });
+
+        List<Map<String, Object>> results = results(service(Duration.ofMillis(300)).execute(List.of(
+                query("ok", "autocomplete", Map.of("prefix", "tra")),
+                query("unknown", "teleport", Map.of()),
+                query("missing", "word-frequency", Map.of()),
+                query("number", "search", Map.of("minFee", "cheap")),
+                query("limit", "search", Map.of("limit", "0")),
+                query("sort", "search", Map.of("sort", "colour")),
+                query("failing", "word-frequency", Map.of("word", "boom")),
+                query("slow", "spelling-suggestions", Map.of("word", "slow")))));
+
+        assertEquals(List.of("ok", "unknown", "missing", "number", "limit", "sort", "failing", "slow"),
+                results.stream().map(result -> result.get("id")).toList());
+        assertEquals(List.of(200, 400, 400, 400, 400, 400, 500, 504),
+                results.stream().map(result -> result.get("status")).toList());
+        assertEquals(List.of("travel"), results.get(0).get("body"));
+        assertEquals("Unknown query type: teleport", results.get(1).get("error"));
+        assertEquals("Missing parameter: word", results.get(2).get("error"));
+        assertEquals("index broken", results.get(6).get("error"));
+    }
+
+    @Test
+    void runsEveryQueryAgainstOneSnapshot() {
+        CardIndex next = mock(CardIndex.class);
+        when(creditCardService.snapshot()).thenReturn(snapshot, next);
+        when(snapshot.getCatalogVersion()).thenReturn("v1");
+        when(creditCardService.search(any(), any())).thenReturn(List.of());
+
+        List<BatchQuery> queries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            queries.add(query(null, "search", Map.of("search", "travel")));
+            queries.add(query(null, "autocomplete", Map.of("prefix", "ca")));
+            queries.add(query(null, "page-ranking", Map.of("term", "travel")));
+        }
+        Map<String, Object> response = service(Duration.ofSeconds(5)).execute(queries);
+
+        assertEquals("v1", response.get("catalogVersion"));
+        results(response).forEach(result -> assertEquals(200, result.get("status")));
+        verify(creditCardService, times(1)).snapshot();
+        verify(creditCardService, times(20)).search(same(snapshot), any());
+        verify(creditCardService, times(20)).getRankedSearchResults(same(snapshot), anyString());
+        verify(snapshot, times(20)).getAutocompleteSuggestions("ca");
+        verifyNoInteractions(next);
+    }
+
+    @Test
+    void searchLimitTrimsResults() {
+        when(creditCardService.snapshot()).thenReturn(snapshot);
+        when(creditCardService.search(same(snapshot), any())).thenReturn(List.of());
+        when(searchHistoryService.getPopularSearches(anyInt())).thenReturn(Map.of());
+
+        List<Map<String, Object>> results = results(service(Duration.ofSeconds(5)).execute(List.of(
+                query(null, "search", Map.of("limit", "3")),
+                query(null, "search-history", Map.of()))));
+        assertEquals(200, results.get(0).get("status"));
+        assertEquals(200, results.get(1).get("status"));
+        verify(searchHistoryService).getPopularSearches(10);
+    }
+
+    private BatchQueryService service(Duration timeout) {
+        return new BatchQueryService(creditCardService, searchHistoryService, executorFactory, 4, 16, timeout);
+    }
+
+    private static BatchQuery query(String id, String type, Map<String, String> params) {
+        BatchQuery query = new BatchQuery();
+        query.setId(id);
+        query.setType(type);
+        query.setParams(params);
+        return query;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> results(Map<String, Object> response) {
+        return (List<Map<String, Object>>) response.get("results");
+    }
+}
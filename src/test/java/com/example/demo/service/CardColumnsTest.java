@@ -0,0 +1,198 @@
+package com.example.demo.service;
+
+import com.example.demo.model.CreditCard;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CardColumnsTest {
+
+    // =========================================
+    // Sorting
+    // =========================================
+
+    @Test
+    void sortsBothWaysWithUnparseableValuesLast() {
+        // Fees: 50, N/A, 0, 50, 120, missing, 0
+        List<CreditCard> cards = List.of(
+                card("$50", "0.1999", "RBC"),
+                card("N/A", "0.2", "RBC"),
+                card("0", "0.2299", "TD"),
+                card("$50", "", "TD"),
+                card("120", "0.1", "CIBC"),
+                card(null, "0.1999", "CIBC"),
+                card("0", "0.1999", "BMO"));
+        CardColumns columns = new CardColumns(cards);
+        BitSet all = all(cards.size());
+
+        // Ties keep ascending card IDs in both directions
+        assertArrayEquals(new int[] {2, 6, 0, 3, 4, 1, 5},
+                columns.sorted(new CardSort(CardSort.Key.ANNUAL_FEE, false), all, Integer.MAX_VALUE));
+        assertArrayEquals(new int[] {4, 0, 3, 2, 6, 1, 5},
+                columns.sorted(new CardSort(CardSort.Key.ANNUAL_FEE, true), all, Integer.MAX_VALUE));
+        assertArrayEquals(new int[] {4, 0, 5, 6, 1, 2, 3},
+                columns.sorted(new CardSort(CardSort.Key.PURCHASE_RATE, false), all, Integer.MAX_VALUE));
+        assertArrayEquals(new int[] {2, 1, 0, 5, 6, 4, 3},
+                columns.sorted(new CardSort(CardSort.Key.PURCHASE_RATE, true), all, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void matchesBruteForceSortOnSubsetsAndLimits() {
+        Random random = new Random(3);
+        List<CreditCard> cards = randomCards(random, 500);
+        CardColumns columns = new CardColumns(cards);
+
+        for (int run = 0; run < 50; run++) {
+            BitSet ids = new BitSet();
+            for (int id = 0; id < cards.size(); id++) {
+                if (random.nextInt(4) == 0) ids.set(id);
+            }
+            int limit = random.nextBoolean() ? Integer.MAX_VALUE : random.nextInt(30);
+            for (CardSort.Key key : CardSort.Key.values()) {
+                for (boolean descending : new boolean[] {false, true}) {
+                    int[] expected = ids.stream().boxed()
+                            .sorted(order(columns, key, descending))
+                            .limit(limit)
+                            .mapToInt(Integer::intValue)
+                            .toArray();
+                    assertArrayEquals(expected, columns.sorted(new CardSort(key, descending), ids, limit),
+                            key + (descending ? " desc" : " asc") + ", limit " + limit);
+                }
+            }
+        }
+    }
+
+    @Test
+    void stopsAtTheLimit() {
+        List<CreditCard> cards = randomCards(new Random(8), 200);
+        CardColumns columns = new CardColumns(cards);
+        CardSort sort = new CardSort(CardSort.Key.CASH_RATE, true);
+        int[] full = columns.sorted(sort, all(cards.size()), Integer.MAX_VALUE);
+
+        assertEquals(cards.size(), full.length);
+        assertArrayEquals(Arrays.copyOf(full, 10), columns.sorted(sort, all(cards.size()), 10));
+        assertEquals(0, columns.sorted(sort, all(cards.size()), 0).length);
+        assertEquals(0, columns.sorted(sort, new BitSet(), 10).length);
+    }
+
+    // Unparseable last, then by value, then by card ID
+    private static Comparator<Integer> order(CardColumns columns, CardSort.Key key, boolean descending) {
+        Comparator<Integer> byValue = Comparator.comparingDouble(id -> columns.value(key, id));
+        return Comparator.<Integer>comparingInt(id -> Double.isNaN(columns.value(key, id)) ? 1 : 0)
+                .thenComparing(descending ? byValue.reversed() : byValue)
+                .thenComparingInt(id -> id);
+    }
+
+    // =========================================
+    // Facets
+    // =========================================
+
+    @Test
+    void countsBucketBoundaries() {
+        // Fee buckets start at 0, 1, 50, 100, 150, 200; rate buckets at 0, 10, 15, 20, 21, 22, 23
+        List<CreditCard> cards = List.of(
+                card("0", "0.0999", "A"),
+                card("$0.99", "0.1", "A"),
+                card("1", "0.15", "A"),
+                card("49.99", "0.1999", "A"),
+                card("$50", "0.2", "A"),
+                card("149.99", "0.21", "A"),
+                card("200", "0.22", "A"),
+                card("1000", "0.23", "A"),
+                card("-5", "-0.01", "A"),
+                card("N/A", "n/a", "A"));
+        Map<String, Object> facets = new CardColumns(cards).facets(all(cards.size())).toMap();
+
+        assertEquals(List.of(2, 2, 1, 1, 0, 2), counts(facets, "annualFees"));
+        assertEquals(List.of(1, 1, 2, 1, 1, 1, 1), counts(facets, "purchaseInterestRate"));
+    }
+
+    @Test
+    void countsOnlyTheResult() {
+        List<CreditCard> cards = List.of(card("0", "0.1", "RBC"), card("0", "0.1", "TD"), card("60", "0.1", "TD"));
+        BitSet result = new BitSet();
+        result.set(1);
+        result.set(2);
+        Map<String, Object> facets = new CardColumns(cards).facets(result).toMap();
+
+        assertEquals(List.of(Map.of("value", "TD", "count", 2)), facets.get("bankName"));
+        assertEquals(List.of(1, 0, 1, 0, 0, 0), counts(facets, "annualFees"));
+    }
+
+    @Test
+    void mergedShardCountsEqualWholeCatalogCounts() {
+        Random random = new Random(12);
+        List<CreditCard> cards = randomCards(random, 300);
+        Map<String, Object> expected = new CardColumns(cards).facets(all(cards.size())).toMap();
+
+        // Split into uneven shards, as CardIndex does with its shard size
+        int[] bounds = {0, 7, 120, 121, 300};
+        CardColumns.FacetCounts merged = null;
+        for (int s = 0; s + 1 < bounds.length; s++) {
+            List<CreditCard> shard = cards.subList(bounds[s], bounds[s + 1]);
+            CardColumns.FacetCounts counts = new CardColumns(shard).facets(all(shard.size()));
+            if (merged == null) {
+                merged = counts;
+            } else {
+                merged.merge(counts);
+            }
+        }
+        assertEquals(expected, merged.toMap());
+    }
+
+    @Test
+    void mergesBankNamesCaseInsensitively() {
+        CardColumns.FacetCounts first = new CardColumns(List.of(card("0", "0.1", "RBC"), card("0", "0.1", "TD")))
+                .facets(all(2));
+        CardColumns.FacetCounts second = new CardColumns(List.of(card("0", "0.1", " rbc "), card("0", "0.1", "BMO")))
+                .facets(all(2));
+        first.merge(second);
+
+        assertEquals(List.of(Map.of("value", "RBC", "count", 2), Map.of("value", "BMO", "count", 1),
+                Map.of("value", "TD", "count", 1)), first.toMap().get("bankName"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Integer> counts(Map<String, Object> facets, String name) {
+        return ((List<Map<String, Object>>) facets.get(name)).stream()
+                .map(bucket -> (Integer) bucket.get("count"))
+                .toList();
+    }
+
+    // =========================================
+    // Helpers
+    // =========================================
+
+    private static CreditCard card(String annualFee, String purchaseRate, String bank) {
+        return new CreditCard("Card", null, annualFee, purchaseRate, purchaseRate, null, null, bank, null);
+    }
+
+    // Few distinct values so that ties are common; some values unparseable
+    private static List<CreditCard> randomCards(Random random, int count) {
+        String[] banks = {"RBC", "TD", "CIBC", "BMO", "Scotiabank", "rbc"};
+        List<CreditCard> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String fee = random.nextInt(10) == 0 ? "N/A" : "$" + 10 * random.nextInt(25);
+            String purchase = random.nextInt(10) == 0 ? "" : Double.toString(0.01 * (8 + random.nextInt(18)));
+            String cash = random.nextInt(10) == 0 ? null : Double.toString(0.01 * (8 + random.nextInt(18)));
+            cards.add(new CreditCard("Card " + i, null, fee, purchase, cash, null, null,
+                    banks[random.nextInt(banks.length)], null));
+        }
+        return cards;
+    }
+
+    private static BitSet all(int size) {
+        BitSet ids = new BitSet(size);
+        ids.set(0, size);
+        return ids;
+    }
+}
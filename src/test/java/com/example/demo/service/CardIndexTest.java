@@ -0,0 +1,177 @@
+package com.example.demo.service;
+
+import com.example.demo.config.IndexProperties;
+import com.example.demo.config.SearchProperties;
+import com.example.demo.model.CreditCard;
+import com.example.demo.util.ExcelReader;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CardIndexTest {
+
+    private static final SearchProperties SEARCH = new SearchProperties();
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(3);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    // =========================================
+    // Sharded Queries
+    // =========================================
+
+    @Test
+    void shardedIndexAnswersLikeASingleShard() throws IOException {
+        List<CreditCard> cards = loadCatalog();
+        CardIndex single = new CardIndex(cards, SEARCH);
+        assertEquals(1, single.getShardCount());
+
+        // Four even shards, then seven with a short last one
+        for (int shardCount : new int[] {4, 7}) {
+            CardIndex sharded = new CardIndex(cards, SEARCH, shards(shardCount), pool, null);
+            assertEquals(shardCount, sharded.getShardCount());
+
+            for (CardQuery query : queries(cards)) {
+                CardIndex.SearchResult expected = single.execute(query);
+                CardIndex.SearchResult actual = sharded.execute(query);
+                String description = shardCount + " shards, " + query.getResultKey();
+                if (query.hasSearch() && query.getSort() == null) {
+                    // Relevance statistics are per shard, so only the matches agree
+                    assertEquals(new HashSet<>(expected.cards()), new HashSet<>(actual.cards()), description);
+                } else {
+                    assertEquals(expected.cards(), actual.cards(), description);
+                }
+                assertEquals(expected.facets(), actual.facets(), description);
+            }
+        }
+    }
+
+    @Test
+    void shardedIndexKeepsTheFirstResultsOfLimitedQueries() throws IOException {
+        List<CreditCard> cards = loadCatalog();
+        CardIndex single = new CardIndex(cards, SEARCH);
+        CardIndex sharded = new CardIndex(cards, SEARCH, shards(5), pool, null);
+
+        for (int limit : new int[] {0, 1, 10, 30, cards.size()}) {
+            for (CardSort.Key key : CardSort.Key.values()) {
+                CardQuery query = new CardQuery().setSort(new CardSort(key, true)).setMaxResults(limit);
+                assertEquals(single.search(query), sharded.search(query), key + ", limit " + limit);
+            }
+            CardQuery unsorted = new CardQuery().setMaxResults(limit);
+            assertEquals(single.search(unsorted), sharded.search(unsorted), "limit " + limit);
+        }
+    }
+
+    @Test
+    void shardedIndexSortsGivenCards() throws IOException {
+        List<CreditCard> cards = loadCatalog();
+        CardIndex single = new CardIndex(cards, SEARCH);
+        CardIndex sharded = new CardIndex(cards, SEARCH, shards(4), pool, null);
+        int[] ids = {80, 3, 41, 3, 22, 60, -1, 0, 500, 21, 79};
+
+        for (CardSort.Key key : CardSort.Key.values()) {
+            for (boolean descending : new boolean[] {false, true}) {
+                CardSort sort = new CardSort(key, descending);
+                assertEquals(single.rankCards(ids, null, sort), sharded.rankCards(ids, null, sort), sort.toString());
+            }
+        }
+        assertEquals(single.rankCards(ids, null, null), sharded.rankCards(ids, null, null));
+    }
+
+    // =========================================
+    // Rebuilds
+    // =========================================
+
+    @Test
+    void rebuildReusesShardsWithUnchangedCards() throws IOException {
+        CardIndex first = new CardIndex(loadCatalog(), SEARCH, shards(4), pool, null);
+
+        // Fresh card instances with the same content: every shard is reused
+        CardIndex unchanged = new CardIndex(loadCatalog(), SEARCH, shards(4), pool, first);
+        assertEquals(first.getCatalogVersion(), unchanged.getCatalogVersion());
+        for (int i = 0; i < 4; i++) {
+            assertSame(first.getShard(i), unchanged.getShard(i), "shard " + i);
+        }
+
+        // One edited card: only its shard is rebuilt
+        List<CreditCard> edited = loadCatalog();
+        edited.get(30).setCardTitle("Zeppelin Rewards Card");
+        CardIndex rebuilt = new CardIndex(edited, SEARCH, shards(4), pool, unchanged);
+        assertFalse(first.getCatalogVersion().equals(rebuilt.getCatalogVersion()));
+        assertSame(unchanged.getShard(0), rebuilt.getShard(0));
+        assertNotSame(unchanged.getShard(1), rebuilt.getShard(1));
+        assertSame(unchanged.getShard(2), rebuilt.getShard(2));
+        assertSame(unchanged.getShard(3), rebuilt.getShard(3));
+        assertEquals(List.of(edited.get(30)), rebuilt.search(new CardQuery().setSearch("zeppelin")));
+
+        // A different layout covers other ID ranges, even where a shard starts at the same ID
+        CardIndex relaid = new CardIndex(edited, SEARCH, shards(3), pool, rebuilt);
+        assertEquals(3, relaid.getShardCount());
+        assertNotSame(rebuilt.getShard(0), relaid.getShard(0));
+        assertTrue(relaid.search(new CardQuery().setSearch("zeppelin")).contains(edited.get(30)));
+    }
+
+    // =========================================
+    // Helpers
+    // =========================================
+
+    private static List<CreditCard> loadCatalog() throws IOException {
+        try (InputStream stream = CardIndexTest.class.getClassLoader().getResourceAsStream("Credit_Card_Details.xlsx")) {
+            return ExcelReader.readCreditCardsFromExcel(stream);
+        }
+    }
+
+    private static IndexProperties shards(int count) {
+        IndexProperties properties = new IndexProperties();
+        properties.setShards(count);
+        properties.setMinShardSize(1);
+        return properties;
+    }
+
+    // Unranked, sorted and faceted queries over the catalog's own banks and values
+    private static List<CardQuery> queries(List<CreditCard> cards) {
+        List<String> banks = cards.stream().map(CreditCard::getBankName).distinct().limit(3).toList();
+        List<CardQuery> queries = new ArrayList<>();
+        queries.add(new CardQuery());
+        queries.add(new CardQuery().setFacets(true));
+        queries.add(new CardQuery().setMinFee(0.0).setMaxFee(100.0).setFacets(true));
+        queries.add(new CardQuery().setMinInterest(15.0).setMaxInterest(21.0));
+        queries.add(new CardQuery().setSearch("travel").setFacets(true));
+        queries.add(new CardQuery().setSearch("cash back rewards"));
+        for (String bank : banks) {
+            queries.add(new CardQuery().setBankName(bank).setFacets(true));
+            queries.add(new CardQuery().setBankName(bank.toUpperCase()).setMinFee(0.0).setMaxFee(150.0));
+        }
+        for (CardSort.Key key : CardSort.Key.values()) {
+            for (boolean descending : new boolean[] {false, true}) {
+                CardSort sort = new CardSort(key, descending);
+                queries.add(new CardQuery().setSort(sort));
+                queries.add(new CardQuery().setSort(sort).setFacets(true).setMinFee(0.0).setMaxFee(120.0));
+                queries.add(new CardQuery().setSort(sort).setSearch("travel"));
+                queries.add(new CardQuery().setSort(sort).setBankName(banks.get(0)));
+            }
+        }
+        return queries;
+    }
+}
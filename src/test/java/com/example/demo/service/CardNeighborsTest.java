@@ -0,0 +1,131 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CardNeighborsTest {
+
+    @Test
+    void matchesNaiveCosineSimilarity() {
+        Random random = new Random(5);
+        int size = 300;
+        int termCount = 80;
+        int[][] termIds = new int[size][];
+        int[][] frequencies = new int[size][];
+        for (int id = 0; id < size; id++) {
+            // Term 0 is in every card; the rest are skewed towards low IDs
+            int[] terms = IntStream.generate(() -> 1 + (int) ((termCount - 1) * Math.pow(random.nextDouble(), 2)))
+                    .limit(random.nextInt(8)).distinct().toArray();
+            termIds[id] = new int[terms.length + 1];
+            System.arraycopy(terms, 0, termIds[id], 1, terms.length);
+            frequencies[id] = random.ints(termIds[id].length, 1, 4).toArray();
+        }
+
+        for (int k : new int[] {1, 5, 20, size}) {
+            CardNeighbors neighbors = build(termIds, frequencies, termCount, k, 7);
+            assertEquals(k, neighbors.getK());
+            double[][] similarities = naiveSimilarities(termIds, frequencies, termCount);
+            for (int id = 0; id < size; id++) {
+                int[] expected = topK(similarities[id], id, k);
+                int[] actual = neighbors.neighbors(id, k);
+                assertEquals(expected.length, actual.length, "card " + id);
+                for (int rank = 0; rank < actual.length; rank++) {
+                    // Float accumulation may reorder near-ties, so compare similarities
+                    assertEquals(similarities[id][expected[rank]], similarities[id][actual[rank]], 1e-5,
+                            "card " + id + " rank " + rank);
+                    assertNotEquals(id, actual[rank]);
+                }
+                assertEquals(Arrays.stream(actual).distinct().count(), actual.length);
+                assertArrayEquals(Arrays.copyOf(actual, Math.min(3, actual.length)), neighbors.neighbors(id, 3));
+            }
+        }
+    }
+
+    @Test
+    void breaksTiesByLowerIdAndKeepsTheBest() {
+        // Cards 1 to 4 are identical, so card 0 is equally similar to each
+        int[][] termIds = {{0, 1}, {0, 2}, {0, 2}, {0, 2}, {0, 2}, {3}, {1, 3}};
+        int[][] frequencies = {{1, 1}, {1, 1}, {1, 1}, {1, 1}, {1, 1}, {1}, {1, 1}};
+
+        CardNeighbors neighbors = build(termIds, frequencies, 4, 3, 1);
+        assertArrayEquals(new int[] {6, 1, 2}, neighbors.neighbors(0, 3));
+        assertArrayEquals(new int[] {2, 3, 4}, neighbors.neighbors(1, 3));
+        assertArrayEquals(new int[] {1, 3, 4}, neighbors.neighbors(2, 3));
+        assertArrayEquals(new int[] {6}, neighbors.neighbors(5, 3));
+    }
+
+    @Test
+    void termsInEveryCardDoNotMakeNeighbors() {
+        // Term 0 is in every card and has zero IDF; cards 2 and 3 share nothing else
+        int[][] termIds = {{0, 1}, {0, 1}, {0, 2}, {0, 3}};
+        int[][] frequencies = {{5, 1}, {5, 1}, {5, 1}, {5, 1}};
+
+        CardNeighbors neighbors = build(termIds, frequencies, 4, 2, 1);
+        assertArrayEquals(new int[] {1}, neighbors.neighbors(0, 2));
+        assertArrayEquals(new int[] {0}, neighbors.neighbors(1, 2));
+        assertArrayEquals(new int[] {}, neighbors.neighbors(2, 2));
+        assertArrayEquals(new int[] {}, neighbors.neighbors(3, 2));
+    }
+
+    // Builds the lists in several ranges, as the index does in parallel
+    private static CardNeighbors build(int[][] termIds, int[][] frequencies, int termCount, int k, int ranges) {
+        CardNeighbors.Builder builder = new CardNeighbors.Builder(termIds, frequencies, termCount, k);
+        int step = (builder.size() + ranges - 1) / ranges;
+        for (int from = 0; from < builder.size(); from += step) {
+            builder.computeRange(from, Math.min(from + step, builder.size()));
+        }
+        return builder.build();
+    }
+
+    // Cosine similarity of every pair of TF-IDF vectors
+    private static double[][] naiveSimilarities(int[][] termIds, int[][] frequencies, int termCount) {
+        int size = termIds.length;
+        int[] docFrequencies = new int[termCount];
+        for (int[] terms : termIds) {
+            for (int term : terms) docFrequencies[term]++;
+        }
+        double[][] vectors = new double[size][termCount];
+        for (int id = 0; id < size; id++) {
+            int length = Arrays.stream(frequencies[id]).sum();
+            for (int t = 0; t < termIds[id].length; t++) {
+                int term = termIds[id][t];
+                vectors[id][term] = (double) frequencies[id][t] / length * Math.log((double) size / docFrequencies[term]);
+            }
+        }
+
+        double[][] similarities = new double[size][size];
+        for (int a = 0; a < size; a++) {
+            for (int b = 0; b < size; b++) {
+                double dot = 0;
+                double normA = 0;
+                double normB = 0;
+                for (int term = 0; term < termCount; term++) {
+                    dot += vectors[a][term] * vectors[b][term];
+                    normA += vectors[a][term] * vectors[a][term];
+                    normB += vectors[b][term] * vectors[b][term];
+                }
+                similarities[a][b] = normA == 0 || normB == 0 ? 0 : dot / Math.sqrt(normA * normB);
+            }
+        }
+        return similarities;
+    }
+
+    private static int[] topK(double[] similarities, int id, int k) {
+        List<Integer> others = new ArrayList<>();
+        for (int other = 0; other < similarities.length; other++) {
+            if (other != id && similarities[other] > 1e-9) others.add(other);
+        }
+        others.sort(Comparator.comparingDouble((Integer other) -> -similarities[other]).thenComparingInt(other -> other));
+        return others.stream().limit(k).mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimitTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void admitsUpToTheLimit() {
+        AdaptiveLimit limiter = new AdaptiveLimit(5, 1, 10);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        assertEquals(5, limiter.getInFlight());
+
+        limiter.release(MILLIS);
+        assertEquals(4, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void clampsTheInitialLimit() {
+        assertEquals(2, new AdaptiveLimit(0, 2, 5).getLimit());
+        assertEquals(5, new AdaptiveLimit(100, 2, 5).getLimit());
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(5, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimit(5, 10, 9));
+    }
+
+    @Test
+    void growsWhileLatencyIsSteady() {
+        AdaptiveLimit limiter = new AdaptiveLimit(10, 1, 200);
+        int previous = limiter.getLimit();
+        for (int i = 0; i < 100; i++) {
+            busySample(limiter, 5 * MILLIS);
+            assertTrue(limiter.getLimit() >= previous, "never shrinks at baseline latency");
+            previous = limiter.getLimit();
+        }
+        assertTrue(limiter.getLimit() > 50, "limit " + limiter.getLimit());
+
+        // Growth stops at the maximum
+        for (int i = 0; i < 2000; i++) {
+            busySample(limiter, 5 * MILLIS);
+        }
+        assertEquals(200, limiter.getLimit());
+    }
+
+    @Test
+    void shrinksWhenLatencyRises() {
+        AdaptiveLimit limiter = new AdaptiveLimit(100, 4, 200);
+        for (int i = 0; i < 20; i++) {
+            idleSample(limiter, MILLIS);
+        }
+        assertEquals(100, limiter.getLimit());
+
+        // Requests now queue: the limit falls, by less than half per sample
+        int previous = limiter.getLimit();
+        for (int i = 0; i < 50; i++) {
+            busySample(limiter, 20 * MILLIS);
+            assertTrue(limiter.getLimit() <= previous && limiter.getLimit() >= previous / 2,
+                    previous + " -> " + limiter.getLimit());
+            previous = limiter.getLimit();
+        }
+        assertTrue(limiter.getLimit() < 50, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void shrinksNoFurtherThanTheMinimum() {
+        AdaptiveLimit limiter = new AdaptiveLimit(10, 8, 200);
+        idleSample(limiter, MILLIS);
+        for (int i = 0; i < 30; i++) {
+            busySample(limiter, 20 * MILLIS);
+            assertTrue(limiter.getLimit() >= 8, "limit " + limiter.getLimit());
+        }
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    void idleLimiterDoesNotGrow() {
+        AdaptiveLimit limiter = new AdaptiveLimit(20, 1, 200);
+        for (int i = 0; i < 1000; i++) {
+            idleSample(limiter, MILLIS);
+        }
+        assertEquals(20, limiter.getLimit());
+
+        // Nine in flight is still below half of the limit
+        for (int i = 0; i < 8; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        for (int i = 0; i < 1000; i++) {
+            idleSample(limiter, MILLIS);
+        }
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void baselineFollowsLatencyDown() {
+        // A long slow phase, e.g. while the JIT warms up, sets a 10 ms baseline
+        AdaptiveLimit limiter = new AdaptiveLimit(40, 1, 200);
+        for (int i = 0; i < 3000; i++) {
+            idleSample(limiter, 10 * MILLIS);
+        }
+        // Latency then drops to 1 ms. The long average alone would still be
+        // above 7 ms after 200 samples; the reset pulls it to about 2 ms.
+        for (int i = 0; i < 200; i++) {
+            idleSample(limiter, MILLIS);
+        }
+        assertEquals(40, limiter.getLimit());
+
+        // Requests taking 4 ms are now queueing, so the limit falls; measured
+        // against a 7 ms baseline they would have looked fast and it would grow
+        for (int i = 0; i < 50; i++) {
+            busySample(limiter, 4 * MILLIS);
+        }
+        assertTrue(limiter.getLimit() < 40, "limit " + limiter.getLimit());
+    }
+
+    // Releases one request with every permit in use
+    private static void busySample(AdaptiveLimit limiter, long rttNanos) {
+        while (limiter.tryAcquire()) {
+            // Fill up to the limit
+        }
+        limiter.release(rttNanos);
+    }
+
+    // Acquires and releases one request, adding nothing to the load
+    private static void idleSample(AdaptiveLimit limiter, long rttNanos) {
+        assertTrue(limiter.tryAcquire());
+        limiter.release(rttNanos);
+    }
+}
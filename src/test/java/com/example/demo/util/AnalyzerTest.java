@@ -0,0 +1,54 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AnalyzerTest {
+
+    @Test
+    void splitsOnNonAlphanumericsAndLowercases() {
+        Analyzer analyzer = new Analyzer();
+        assertEquals(List.of("cash", "back", "2x", "points", "on", "travel"),
+                analyzer.tokenize("Cash-Back® 2X points,on  TRAVEL!"));
+        assertEquals(List.of(), analyzer.tokenize(null));
+        assertEquals(List.of(), analyzer.tokenize(" -- "));
+    }
+
+    @Test
+    void keepsTokensLongerThanTheInitialBuffer() {
+        String longToken = "a".repeat(100);
+        assertEquals(List.of("x", longToken, "y"), new Analyzer().tokenize("x " + longToken.toUpperCase() + " y"));
+    }
+
+    @Test
+    void internsInPositionOrderAndLookupDoesNotAdd() {
+        Analyzer analyzer = new Analyzer();
+        TermDictionary dictionary = new TermDictionary();
+
+        assertArrayEquals(new int[]{0, 1, 0, 2}, analyzer.intern("travel rewards, TRAVEL insurance", dictionary));
+        assertArrayEquals(new int[]{3, 0}, analyzer.intern("no travel", dictionary));
+        assertEquals(4, dictionary.size());
+
+        assertArrayEquals(new int[]{2, -1, 1}, analyzer.lookup("Insurance unknown rewards", dictionary));
+        assertEquals(4, dictionary.size());
+
+        // Results are copies: later calls must not change earlier arrays
+        int[] first = analyzer.lookup("travel", dictionary);
+        analyzer.lookup("rewards rewards rewards", dictionary);
+        assertArrayEquals(new int[]{0}, first);
+    }
+
+    @Test
+    void internsTextLongerThanTheIdBuffer() {
+        TermDictionary dictionary = new TermDictionary();
+        int[] ids = new Analyzer().intern("a b ".repeat(100), dictionary);
+        assertEquals(200, ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(i % 2, ids[i]);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.demo.util.InvertedIndex.BLOCK_SIZE;
+import static com.example.demo.util.InvertedIndex.NO_MORE_DOCS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private static final float[] BOOSTS = {3f, 1.5f, 1f};
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    @Test
+    void decodesEveryPostingWithItsBm25Impact() {
+        TestCorpus corpus = TestCorpus.random(new Random(1), 1500, BOOSTS.length, 300, 12);
+        InvertedIndex index = corpus.invertedIndex(BOOSTS, K1, B);
+        assertEquals(corpus.docIds.length, index.getDocCount());
+
+        for (int termId = 0; termId < corpus.vocabulary; termId++) {
+            List<Integer> expected = postings(corpus, termId);
+            InvertedIndex.Postings postings = index.getPostings(termId);
+            if (expected.isEmpty()) {
+                assertNull(postings);
+                continue;
+            }
+            assertEquals(expected.size(), postings.size());
+            assertEquals(expected.size(), index.getDocFrequency(termId));
+
+            InvertedIndex.Cursor cursor = postings.cursor();
+            float maxImpact = 0;
+            for (int doc : expected) {
+                assertEquals(corpus.docIds[doc], cursor.docId(), "term " + termId);
+                assertClose(corpus.bm25(doc, termId, BOOSTS, K1, B), cursor.impact());
+                maxImpact = Math.max(maxImpact, cursor.impact());
+                cursor.next();
+            }
+            assertEquals(NO_MORE_DOCS, cursor.docId());
+            assertEquals(maxImpact, postings.getMaxImpact());
+        }
+    }
+
+    @Test
+    void advancesAndShallowAdvancesAcrossBlockBoundaries() {
+        Random random = new Random(2);
+        TestCorpus corpus = TestCorpus.random(random, 2000, BOOSTS.length, 200, 10);
+        InvertedIndex index = corpus.invertedIndex(BOOSTS, K1, B);
+
+        int multiBlockTerms = 0;
+        for (int termId = 0; termId < corpus.vocabulary; termId++) {
+            List<Integer> ordinals = postings(corpus, termId);
+            if (ordinals.size() <= 2 * BLOCK_SIZE) continue;
+            multiBlockTerms++;
+            int[] docs = ordinals.stream().mapToInt(doc -> corpus.docIds[doc]).toArray();
+
+            // Targets on, just before and just after every block boundary
+            List<Integer> targets = new ArrayList<>();
+            for (int end = BLOCK_SIZE - 1; end < docs.length; end += BLOCK_SIZE) {
+                targets.add(docs[end] - 1);
+                targets.add(docs[end]);
+                targets.add(docs[end] + 1);
+            }
+            checkAdvance(index.getPostings(termId), docs, targets);
+
+            // Random increasing targets, skipping several blocks at a time
+            for (int run = 0; run < 20; run++) {
+                targets.clear();
+                int target = random.nextInt(50);
+                while (target <= docs[docs.length - 1] + 10) {
+                    targets.add(target);
+                    target += 1 + random.nextInt(random.nextBoolean() ? 20 : 2000);
+                }
+                checkAdvance(index.getPostings(termId), docs, targets);
+            }
+        }
+        assertTrue(multiBlockTerms > 5, "corpus should have terms spanning several blocks");
+    }
+
+    @Test
+    void encodesPostingsCompactly() {
+        TestCorpus corpus = TestCorpus.random(new Random(4), 5000, BOOSTS.length, 2000, 20);
+        InvertedIndex index = corpus.invertedIndex(BOOSTS, K1, B);
+        long postings = 0;
+        for (int termId = 0; termId < corpus.vocabulary; termId++) {
+            postings += index.getDocFrequency(termId);
+        }
+        // Uncompressed postings took an int doc ID and a float impact: 8 bytes
+        double bytesPerPosting = (double) index.getEncodedSize() / postings;
+        assertTrue(bytesPerPosting < 4, "bytes per posting: " + bytesPerPosting);
+    }
+
+    @Test
+    void unknownTermsHaveNoPostings() {
+        InvertedIndex index = TestCorpus.random(new Random(3), 50, 1, 10, 5).invertedIndex(new float[] {1f}, K1, B);
+        assertNull(index.getPostings(-1));
+        assertNull(index.getPostings(10_000));
+        assertEquals(0, index.getDocFrequency(-1));
+    }
+
+    // Interleaves shallowAdvance and advance over increasing targets and
+    // checks both against the expected doc IDs
+    private static void checkAdvance(InvertedIndex.Postings postings, int[] docs, List<Integer> targets) {
+        InvertedIndex.Cursor cursor = postings.cursor();
+        float[] blockMax = blockMaxImpacts(postings);
+        int current = cursor.docId();
+        for (int target : targets) {
+            if (target < current) continue;
+            int expected = firstAtLeast(docs, target);
+
+            int lastDoc = cursor.shallowAdvance(target);
+            if (expected == docs.length) {
+                assertEquals(NO_MORE_DOCS, lastDoc);
+                assertEquals(0f, cursor.getBlockMaxImpact());
+            } else {
+                int block = expected / BLOCK_SIZE;
+                assertEquals(docs[Math.min(docs.length, (block + 1) * BLOCK_SIZE) - 1], lastDoc, "target " + target);
+                assertEquals(blockMax[block], cursor.getBlockMaxImpact());
+            }
+
+            current = cursor.advance(target);
+            assertEquals(expected == docs.length ? NO_MORE_DOCS : docs[expected], current, "target " + target);
+            if (current != NO_MORE_DOCS) {
+                assertTrue(cursor.impact() <= cursor.getBlockMaxImpact());
+            }
+        }
+    }
+
+    // Maximum impact of each block, found by decoding the whole list
+    private static float[] blockMaxImpacts(InvertedIndex.Postings postings) {
+        float[] maxima = new float[(postings.size() + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        InvertedIndex.Cursor cursor = postings.cursor();
+        for (int i = 0; cursor.docId() != NO_MORE_DOCS; i++, cursor.next()) {
+            maxima[i / BLOCK_SIZE] = Math.max(maxima[i / BLOCK_SIZE], cursor.impact());
+        }
+        return maxima;
+    }
+
+    private static int firstAtLeast(int[] docs, int target) {
+        int i = 0;
+        while (i < docs.length && docs[i] < target) i++;
+        return i;
+    }
+
+    // Ordinals of the documents containing the term in any field
+    private static List<Integer> postings(TestCorpus corpus, int termId) {
+        List<Integer> docs = new ArrayList<>();
+        for (int doc = 0; doc < corpus.docIds.length; doc++) {
+            for (int field = 0; field < BOOSTS.length; field++) {
+                if (corpus.frequency(doc, field, termId) > 0) {
+                    docs.add(doc);
+                    break;
+                }
+            }
+        }
+        return docs;
+    }
+
+    private static void assertClose(double expected, float actual) {
+        assertEquals(expected, actual, 1e-5 * Math.max(1, Math.abs(expected)));
+    }
+}
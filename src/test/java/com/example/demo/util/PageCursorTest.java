@@ -0,0 +1,47 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageCursorTest {
+
+    @Test
+    void roundTripsVersionQueryAndOffset() {
+        String cursor = PageCursor.encode("0123abcd", "search=travel", 40);
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), "URL-safe without padding: " + cursor);
+
+        PageCursor decoded = PageCursor.decode(cursor);
+        assertEquals("0123abcd", decoded.getCatalogVersion());
+        assertEquals(40, decoded.getOffset());
+        assertTrue(decoded.isForQuery("search=travel"));
+        assertFalse(decoded.isForQuery("search=travel&sort=annualFee"));
+        assertFalse(decoded.isForQuery(""));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        for (String raw : new String[] {"", "v1", "v1:5", "v1:hash:", "v1:hash:-1", "v1:hash:x",
+                "v1:hash:99999999999", ":hash:5", "v1::5", "v1:hash:5:extra"}) {
+            assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encode(raw)), raw);
+        }
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("a"));
+    }
+
+    @Test
+    void encodesTheLargestOffset() {
+        String cursor = PageCursor.encode("v1", "q", Integer.MAX_VALUE);
+        assertEquals(Integer.MAX_VALUE, PageCursor.decode(cursor).getOffset());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
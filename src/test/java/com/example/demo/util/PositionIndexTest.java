@@ -0,0 +1,139 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PositionIndexTest {
+
+    private static final float[] BOOSTS = {3f, 1f, 1f};
+    private static final int[] SLOPS = {0, 1, 2, 5, PositionIndex.MAX_SLOP, 1000};
+
+    @Test
+    void matchesBruteForcePhraseSearch() {
+        Random random = new Random(11);
+        // Small vocabulary so that phrases, including repeated terms, often match
+        TestCorpus corpus = TestCorpus.random(random, 1500, BOOSTS.length, 12, 10);
+        InvertedIndex index = corpus.invertedIndex(BOOSTS, 1.2f, 0.75f);
+        PositionIndex positions = corpus.positionIndex();
+
+        BitSet sampled = new BitSet();
+        for (int docId : corpus.docIds) {
+            if (random.nextBoolean()) sampled.set(docId);
+        }
+        IntPredicate[] filters = {doc -> true, sampled::get};
+
+        int matched = 0;
+        for (int query = 0; query < 300; query++) {
+            int[] phrase = new int[1 + random.nextInt(4)];
+            for (int i = 0; i < phrase.length; i++) {
+                phrase[i] = random.nextInt(corpus.vocabulary);
+            }
+            if (query % 3 == 0) {
+                phrase[phrase.length - 1] = phrase[0]; // Repeated terms, e.g. "a a" or "a b a"
+            }
+            for (int slop : SLOPS) {
+                for (IntPredicate filter : filters) {
+                    BitSet expected = bruteForce(corpus, phrase, slop, filter);
+                    assertEquals(expected, positions.match(index, phrase, slop, filter),
+                            Arrays.toString(phrase) + " slop " + slop);
+                    matched += expected.cardinality();
+                }
+            }
+        }
+        assertTrue(matched > 0);
+    }
+
+    @Test
+    void repeatedTermsNeedSeparateOccurrences() {
+        Fixture fixture = new Fixture(new int[][] {{7}}, new int[][] {{7, 8, 7}}, new int[][] {{7, 7}});
+
+        assertEquals(bits(3), fixture.match(new int[] {7, 7}, 0));
+        assertEquals(bits(2, 3), fixture.match(new int[] {7, 7}, 1));
+        assertEquals(bits(2), fixture.match(new int[] {7, 8, 7}, 0));
+    }
+
+    @Test
+    void phrasesDoNotCrossFields() {
+        Fixture fixture = new Fixture(new int[][] {{5, 1, 2}, {3, 4}}, new int[][] {{1, 2, 3}, {}});
+
+        assertEquals(bits(1, 2), fixture.match(new int[] {1, 2}, 0));
+        assertEquals(bits(2), fixture.match(new int[] {2, 3}, 0));
+        assertEquals(bits(2), fixture.match(new int[] {2, 3}, PositionIndex.MAX_SLOP));
+        assertEquals(bits(2), fixture.match(new int[] {1, 3}, 1000));
+        assertEquals(bits(), fixture.match(new int[] {2, 1}, PositionIndex.MAX_SLOP));
+    }
+
+    @Test
+    void unknownTermsMatchNothing() {
+        Fixture fixture = new Fixture(new int[][] {{1, 2}});
+
+        assertEquals(bits(), fixture.match(new int[] {1, -1}, 0));
+        assertEquals(bits(), fixture.match(new int[] {-1}, 5));
+        assertEquals(bits(), fixture.match(new int[] {1, 99}, 5));
+    }
+
+    // Documents with IDs 1, 2, ... built from the given fields
+    private static final class Fixture {
+        private final InvertedIndex index;
+        private final PositionIndex positions;
+
+        Fixture(int[][]... docs) {
+            InvertedIndex.Builder indexBuilder = new InvertedIndex.Builder(new float[] {1f, 1f}, 1.2f, 0.75f);
+            PositionIndex.Builder positionBuilder = new PositionIndex.Builder();
+            for (int i = 0; i < docs.length; i++) {
+                int[][] fields = docs[i].length == 2 ? docs[i] : new int[][] {docs[i][0], {}};
+                indexBuilder.addDocument(i + 1, fields);
+                positionBuilder.addDocument(i + 1, fields);
+            }
+            this.index = indexBuilder.build();
+            this.positions = positionBuilder.build();
+        }
+
+        BitSet match(int[] phrase, int slop) {
+            return positions.match(index, phrase, slop, doc -> true);
+        }
+    }
+
+    private static BitSet bits(int... docIds) {
+        BitSet bits = new BitSet();
+        for (int docId : docIds) {
+            bits.set(docId);
+        }
+        return bits;
+    }
+
+    private static BitSet bruteForce(TestCorpus corpus, int[] phrase, int slop, IntPredicate filter) {
+        slop = Math.min(slop, PositionIndex.MAX_SLOP);
+        BitSet matches = new BitSet();
+        for (int doc = 0; doc < corpus.docIds.length; doc++) {
+            if (!filter.test(corpus.docIds[doc])) continue;
+            for (int[] tokens : corpus.fields[doc]) {
+                if (matchesFrom(tokens, phrase, 0, -1, -1, slop)) {
+                    matches.set(corpus.docIds[doc]);
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    // Tries every choice of increasing positions for the phrase terms from index i on
+    private static boolean matchesFrom(int[] tokens, int[] phrase, int i, int start, int previous, int slop) {
+        if (i == phrase.length) {
+            return previous - start - (phrase.length - 1) <= slop;
+        }
+        for (int p = previous + 1; p < tokens.length; p++) {
+            if (tokens[p] == phrase[i] && matchesFrom(tokens, phrase, i + 1, i == 0 ? p : start, p, slop)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
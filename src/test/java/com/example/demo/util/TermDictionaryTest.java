@@ -0,0 +1,87 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TermDictionaryTest {
+
+    @Test
+    void assignsDenseIdsThatSurviveRehashing() {
+        TermDictionary dictionary = new TermDictionary();
+        Map<String, Integer> expected = new HashMap<>();
+        List<String> terms = randomTerms(new Random(42), 20_000); // Initial table holds 512; grows 6 times
+
+        for (String term : terms) {
+            int id = add(dictionary, term);
+            Integer previous = expected.putIfAbsent(term, expected.size());
+            assertEquals(previous == null ? expected.size() - 1 : previous, id, term);
+        }
+        assertEquals(expected.size(), dictionary.size());
+
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), add(dictionary, entry.getKey()), "re-adding " + entry.getKey());
+            assertEquals(entry.getKey(), dictionary.term(entry.getValue()));
+        }
+        assertEquals(expected.size(), dictionary.size());
+    }
+
+    @Test
+    void stringAndBufferLookupsAgree() {
+        TermDictionary dictionary = new TermDictionary();
+        Random random = new Random(7);
+        List<String> known = randomTerms(random, 5_000);
+        for (String term : known) {
+            add(dictionary, term);
+        }
+
+        List<String> probes = new ArrayList<>(known);
+        probes.addAll(randomTerms(random, 5_000)); // Mostly unknown
+        probes.add("");
+        for (String term : probes) {
+            // Trailing characters in the buffer must be ignored
+            char[] buffer = (term + "zz#").toCharArray();
+            int byString = dictionary.lookup(term);
+            assertEquals(byString, dictionary.lookup(buffer, term.length()), term);
+            assertEquals(known.contains(term) ? dictionary.lookup(term) : -1, byString, term);
+        }
+    }
+
+    @Test
+    void separatesTermsWithEqualHashCodes() {
+        // "Aa" and "BB" share String.hashCode(), and so do all their concatenations
+        String[] colliding = {"Aa", "BB", "AaAa", "AaBB", "BBAa", "BBBB"};
+        TermDictionary dictionary = new TermDictionary();
+        for (int i = 0; i < colliding.length; i++) {
+            assertEquals(i, add(dictionary, colliding[i]));
+        }
+        for (int i = 0; i < colliding.length; i++) {
+            assertEquals(i, dictionary.lookup(colliding[i]));
+            assertEquals(i, dictionary.lookup(colliding[i].toCharArray(), colliding[i].length()));
+        }
+        assertEquals(-1, dictionary.lookup("AaAaAa"));
+    }
+
+    private static int add(TermDictionary dictionary, String term) {
+        return dictionary.add(term.toCharArray(), term.length());
+    }
+
+    // Short terms over a small alphabet, so many repeat
+    private static List<String> randomTerms(Random random, int count) {
+        List<String> terms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            char[] chars = new char[1 + random.nextInt(6)];
+            for (int c = 0; c < chars.length; c++) {
+                chars[c] = (char) ('a' + random.nextInt(12));
+            }
+            terms.add(new String(chars));
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.util;
+
+import java.util.Random;
+
+/**
+ * Random multi-field documents for comparing the indexes with brute force.
+ * Term IDs are skewed towards low values so that common terms span several
+ * postings blocks, and document IDs have occasional large gaps so that
+ * multi-byte deltas are exercised.
+ */
+final class TestCorpus {
+
+    final int[] docIds;         // Increasing document IDs
+    final int[][][] fields;     // [doc ordinal][field] -> term IDs in token order
+    final int vocabulary;
+
+    private TestCorpus(int[] docIds, int[][][] fields, int vocabulary) {
+        this.docIds = docIds;
+        this.fields = fields;
+        this.vocabulary = vocabulary;
+    }
+
+    static TestCorpus random(Random random, int docCount, int fieldCount, int vocabulary, int maxFieldLength) {
+        int[] docIds = new int[docCount];
+        int[][][] fields = new int[docCount][fieldCount][];
+        int docId = -1;
+        for (int doc = 0; doc < docCount; doc++) {
+            docId += 1 + (random.nextInt(20) == 0 ? random.nextInt(500) : 0);
+            docIds[doc] = docId;
+            for (int field = 0; field < fieldCount; field++) {
+                int[] tokens = new int[random.nextInt(maxFieldLength + 1)];
+                for (int i = 0; i < tokens.length; i++) {
+                    tokens[i] = (int) (vocabulary * Math.pow(random.nextDouble(), 3));
+                }
+                fields[doc][field] = tokens;
+            }
+        }
+        return new TestCorpus(docIds, fields, vocabulary);
+    }
+
+    InvertedIndex invertedIndex(float[] boosts, float k1, float b) {
+        InvertedIndex.Builder builder = new InvertedIndex.Builder(boosts, k1, b);
+        for (int doc = 0; doc < docIds.length; doc++) {
+            builder.addDocument(docIds[doc], fields[doc]);
+        }
+        return builder.build();
+    }
+
+    PositionIndex positionIndex() {
+        PositionIndex.Builder builder = new PositionIndex.Builder();
+        for (int doc = 0; doc < docIds.length; doc++) {
+            builder.addDocument(docIds[doc], fields[doc]);
+        }
+        return builder.build();
+    }
+
+    int frequency(int doc, int field, int termId) {
+        int count = 0;
+        for (int token : fields[doc][field]) {
+            if (token == termId) count++;
+        }
+        return count;
+    }
+
+    int docFrequency(int termId) {
+        int df = 0;
+        for (int doc = 0; doc < docIds.length; doc++) {
+            for (int field = 0; field < fields[doc].length; field++) {
+                if (frequency(doc, field, termId) > 0) {
+                    df++;
+                    break;
+                }
+            }
+        }
+        return df;
+    }
+
+    /**
+     * BM25 contribution of a term to a document, computed from scratch with
+     * the same formula the index uses.
+     */
+    double bm25(int doc, int termId, float[] boosts, float k1, float b) {
+        int n = docIds.length;
+        int df = docFrequency(termId);
+        double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+        double score = 0;
+        for (int field = 0; field < boosts.length; field++) {
+            int tf = frequency(doc, field, termId);
+            if (tf == 0) continue;
+            double total = 0;
+            for (int[][] other : fields) {
+                total += other[field].length;
+            }
+            double average = Math.max(total / n, 1e-9);
+            double norm = k1 * (1 - b + b * fields[doc][field].length / average);
+            score += boosts[field] * tf * (k1 + 1) / (tf + norm);
+        }
+        return idf * score;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WandSearcherTest {
+
+    private static final float[] BOOSTS = {3f, 1.5f, 1f};
+    private static final int[] KS = {1, 5, 10, 50, 100_000};
+
+    @Test
+    void matchesExhaustiveScoring() {
+        for (long seed = 1; seed <= 4; seed++) {
+            Random random = new Random(seed);
+            TestCorpus corpus = TestCorpus.random(random, 1000 + random.nextInt(2000), BOOSTS.length, 250, 12);
+            InvertedIndex index = corpus.invertedIndex(BOOSTS, 1.2f, 0.75f);
+
+            BitSet sampled = new BitSet();
+            for (int docId : corpus.docIds) {
+                if (random.nextInt(10) < 3) sampled.set(docId);
+            }
+            List<IntPredicate> filters = List.of(doc -> true, doc -> doc % 2 == 0, sampled::get, doc -> false);
+
+            for (int query = 0; query < 30; query++) {
+                List<WandSearcher.QueryTerm> terms = new ArrayList<>();
+                int termCount = 1 + random.nextInt(5);
+                for (int i = 0; i < termCount; i++) {
+                    // Mix of common terms (many blocks) and rare ones
+                    int termId = random.nextBoolean() ? random.nextInt(10) : random.nextInt(corpus.vocabulary);
+                    InvertedIndex.Postings postings = index.getPostings(termId);
+                    if (postings != null) {
+                        terms.add(new WandSearcher.QueryTerm(postings, 1 + random.nextInt(3)));
+                    }
+                }
+                for (IntPredicate filter : filters) {
+                    for (int k : KS) {
+                        check(terms, filter, k);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void emptyQueriesFindNothing() {
+        InvertedIndex index = TestCorpus.random(new Random(5), 100, 1, 10, 5).invertedIndex(new float[] {1f}, 1.2f, 0.75f);
+        assertEquals(List.of(), WandSearcher.search(List.of(), doc -> true, 10));
+        assertEquals(List.of(), WandSearcher.search(
+                List.of(new WandSearcher.QueryTerm(index.getPostings(0), 1f)), doc -> true, 0));
+    }
+
+    private static void check(List<WandSearcher.QueryTerm> terms, IntPredicate filter, int k) {
+        List<WandSearcher.ScoredDoc> expected = bruteForce(terms, filter);
+        List<WandSearcher.ScoredDoc> actual = WandSearcher.search(terms, filter, k);
+        String context = "terms " + terms.size() + ", k " + k;
+
+        assertEquals(Math.min(k, expected.size()), actual.size(), context);
+        float[] scores = new float[expected.stream().mapToInt(WandSearcher.ScoredDoc::docId).max().orElse(0) + 1];
+        for (WandSearcher.ScoredDoc doc : expected) {
+            scores[doc.docId()] = doc.score();
+        }
+        for (int i = 0; i < actual.size(); i++) {
+            WandSearcher.ScoredDoc doc = actual.get(i);
+            assertTrue(filter.test(doc.docId()), context);
+            assertClose(scores[doc.docId()], doc.score(), context);
+            assertClose(expected.get(i).score(), doc.score(), context);
+            if (i > 0) {
+                assertTrue(doc.score() <= actual.get(i - 1).score(), context);
+            }
+        }
+    }
+
+    // Scores every matching document by walking the full postings lists
+    private static List<WandSearcher.ScoredDoc> bruteForce(List<WandSearcher.QueryTerm> terms, IntPredicate filter) {
+        double[] scores = new double[0];
+        for (WandSearcher.QueryTerm term : terms) {
+            InvertedIndex.Cursor cursor = term.postings().cursor();
+            for (int doc = cursor.docId(); doc != InvertedIndex.NO_MORE_DOCS; doc = cursor.next()) {
+                if (doc >= scores.length) {
+                    scores = Arrays.copyOf(scores, Math.max(doc + 1, scores.length * 2));
+                }
+                scores[doc] += cursor.impact() * term.weight();
+            }
+        }
+        List<WandSearcher.ScoredDoc> docs = new ArrayList<>();
+        for (int doc = 0; doc < scores.length; doc++) {
+            if (scores[doc] > 0 && filter.test(doc)) {
+                docs.add(new WandSearcher.ScoredDoc(doc, (float) scores[doc]));
+            }
+        }
+        docs.sort(Comparator.comparingDouble(WandSearcher.ScoredDoc::score).reversed()
+                .thenComparingInt(WandSearcher.ScoredDoc::docId));
+        return docs;
+    }
+
+    private static void assertClose(float expected, float actual, String context) {
+        assertEquals(expected, actual, 1e-5f * Math.max(1, Math.abs(expected)), context);
+    }
+}